@@ -0,0 +1,13 @@
+package com.memory.context.engine.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async methods, backed by Spring Boot's auto-configured
+ * applicationTaskExecutor.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,72 @@
+package com.memory.context.engine.config;
+
+import com.memory.context.engine.domain.search.embedding.CoalescingEmbeddingProvider;
+import com.memory.context.engine.domain.search.embedding.EmbeddingProvider;
+import com.memory.context.engine.domain.search.embedding.HashingEmbeddingProvider;
+import com.memory.context.engine.domain.search.embedding.RemoteEmbeddingProvider;
+import com.memory.context.engine.domain.search.service.EmbeddingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects the EmbeddingProvider by name (embedding.provider).
+ *
+ * - hashing: local deterministic pseudo-embeddings (default)
+ * - remote: HTTP embeddings endpoint, wrapped in a coalescing decorator so
+ * concurrent single-text requests share one provider call; batches run on a
+ * small pool of their own so they never queue behind the callers waiting on them
+ */
+@Slf4j
+@Configuration
+public class EmbeddingConfig {
+
+        @Bean
+        public EmbeddingProvider embeddingProvider(
+                        @Value("${embedding.provider:hashing}") String providerName,
+                        @Value("${embedding.remote.url:http://localhost:8090/v1/embeddings}") String remoteUrl,
+                        @Value("${embedding.remote.api-key:}") String remoteApiKey,
+                        @Value("${embedding.remote.model:text-embedding-ada-002}") String remoteModel,
+                        @Value("${embedding.remote.timeout-ms:10000}") long remoteTimeoutMs,
+                        @Value("${embedding.coalescing.window-ms:5}") long coalescingWindowMs,
+                        @Value("${embedding.coalescing.max-batch-size:64}") int coalescingMaxBatch,
+                        @Value("${embedding.coalescing.dispatch-threads:4}") int dispatchThreads) {
+
+                EmbeddingProvider provider = switch (providerName) {
+                        case "hashing" -> new HashingEmbeddingProvider(EmbeddingService.EMBEDDING_DIMENSION);
+                        case "remote" -> new RemoteEmbeddingProvider(remoteUrl, remoteApiKey, remoteModel,
+                                        EmbeddingService.EMBEDDING_DIMENSION, Duration.ofMillis(remoteTimeoutMs));
+                        default -> throw new IllegalArgumentException("Unknown embedding provider: " + providerName);
+                };
+
+                // The local provider is CPU-bound and gains nothing from coalescing
+                if (!"hashing".equals(providerName) && coalescingWindowMs > 0) {
+                        // Connect and request timeouts apply separately, plus one window of queueing
+                        Duration waitTimeout = Duration.ofMillis(2 * remoteTimeoutMs + coalescingWindowMs);
+                        provider = new CoalescingEmbeddingProvider(provider, coalescingWindowMs, coalescingMaxBatch,
+                                        dispatchExecutor(dispatchThreads), waitTimeout);
+                }
+
+                log.info("Using embedding provider '{}' (dimension {})", provider.getName(), provider.dimension());
+                return provider;
+        }
+
+        private static ThreadPoolExecutor dispatchExecutor(int threads) {
+                AtomicInteger counter = new AtomicInteger();
+                // Bounded queue: when the endpoint falls this far behind, failing the
+                // batch fast beats piling up callers that will time out anyway
+                return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                new ArrayBlockingQueue<>(threads * 16), runnable -> {
+                                        Thread thread = new Thread(runnable, "embedding-dispatch-" + counter.incrementAndGet());
+                                        thread.setDaemon(true);
+                                        return thread;
+                                });
+        }
+}
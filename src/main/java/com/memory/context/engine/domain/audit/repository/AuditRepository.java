@@ -4,9 +4,6 @@ import com.memory.context.engine.domain.audit.entity.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.List;
@@ -34,8 +31,4 @@ public interface AuditRepository extends JpaRepository<AuditEvent, Long> {
             String eventType,
             Instant start,
             Instant end);
-
-    @Modifying
-    @Query("DELETE FROM AuditEvent a WHERE a.userId = :userId")
-    void deleteByUserId(@Param("userId") String userId);
 }
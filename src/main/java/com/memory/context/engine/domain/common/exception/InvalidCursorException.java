@@ -0,0 +1,8 @@
+package com.memory.context.engine.domain.common.exception;
+
+public class InvalidCursorException extends DomainException {
+
+    public InvalidCursorException(String message) {
+        super("INVALID_CURSOR", message);
+    }
+}
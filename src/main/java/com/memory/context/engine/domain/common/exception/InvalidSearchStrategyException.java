@@ -0,0 +1,8 @@
+package com.memory.context.engine.domain.common.exception;
+
+public class InvalidSearchStrategyException extends DomainException {
+
+    public InvalidSearchStrategyException(String message) {
+        super("INVALID_SEARCH_STRATEGY", message);
+    }
+}
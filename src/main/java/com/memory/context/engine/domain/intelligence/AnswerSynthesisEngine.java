@@ -6,14 +6,26 @@ import com.memory.context.engine.domain.relationship.entity.MemoryRelationship;
 import com.memory.context.engine.domain.relationship.repository.MemoryRelationshipRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -33,23 +45,133 @@ public class AnswerSynthesisEngine {
     private final KeywordExtractionService keywordService;
     private final JdbcTemplate jdbcTemplate;
     private final GeminiService geminiService;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    private static final int RELEVANT_LIMIT = 10;
+    private static final String NO_INFORMATION =
+            "I don't have enough information in your memories to answer that question.";
+
+    @Value("${ask.speculative.enabled:true}")
+    private boolean speculativeEnabled;
+
+    @Value("${ask.speculative.terms-deadline-ms:1500}")
+    private long termsDeadlineMs;
 
     /**
      * Main entry point: Ask a question and get an intelligent answer.
      */
     public AnswerResponse ask(String question) {
+        try {
+            return askAsync(question).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #ask}. No thread is held while Gemini is
+     * working; the database steps run on the application task executor once
+     * the search terms arrive.
+     */
+    public CompletableFuture<AnswerResponse> askAsync(String question) {
+        return retrieve(question)
+                // 3. Synthesize answer from memories
+                .thenCompose(context -> synthesizeAnswer(question, context.relevant(), context.expanded())
+                        .thenApply(answer -> buildResponse(question, answer, context.relevant(),
+                                context.expanded())));
+    }
+
+    /**
+     * Streaming variant of {@link #ask}. onContext receives the response with
+     * sources and confidence (answer still null) as soon as retrieval is done;
+     * onToken then receives answer chunks as Gemini produces them. The future
+     * completes with the full response.
+     */
+    public CompletableFuture<AnswerResponse> askStreaming(String question, Consumer<AnswerResponse> onContext,
+            Consumer<String> onToken) {
+        return retrieve(question).thenCompose(context -> {
+            onContext.accept(buildResponse(question, null, context.relevant(), context.expanded()));
+
+            CompletableFuture<String> answer = context.relevant().isEmpty()
+                    ? noInformation(onToken)
+                    : geminiService.streamAnswerAsync(question,
+                            buildMemoryContexts(context.relevant(), context.expanded()),
+                            sourceVersions(context.relevant(), context.expanded()), onToken);
+            return answer.thenApply(full -> buildResponse(question, full, context.relevant(), context.expanded()));
+        });
+    }
+
+    /**
+     * Steps 1 and 2 of the pipeline: find relevant memories, then expand them
+     * via relationships.
+     */
+    private CompletableFuture<RetrievedContext> retrieve(String question) {
+        // Resolve the user on the calling thread, the security context does not follow the future
         String userId = getCurrentUser();
         log.info("Processing question for user {}: '{}'", userId, question);
 
+        log.info("Generating intelligent search terms for: '{}'", question);
+        CompletableFuture<List<String>> terms = geminiService.extractSearchTermsAsync(question);
+
         // 1. Find relevant memories using full-text search
-        List<ScoredMemory> relevantMemories = findRelevantMemories(question, userId, 10);
+        CompletableFuture<List<ScoredMemory>> relevant = speculativeEnabled
+                ? findRelevantMemoriesSpeculatively(question, terms, userId)
+                : terms.thenApplyAsync(keywords -> findRelevantMemories(question, keywords, userId, RELEVANT_LIMIT),
+                        applicationTaskExecutor);
+
+        return relevant.thenApplyAsync(relevantMemories -> {
+            // 2. Expand context via relationships
+            List<ScoredMemory> expandedContext = expandContextViaRelationships(relevantMemories, userId);
+            return new RetrievedContext(relevantMemories, expandedContext);
+        }, applicationTaskExecutor);
+    }
 
-        // 2. Expand context via relationships
-        List<ScoredMemory> expandedContext = expandContextViaRelationships(relevantMemories, userId);
+    /**
+     * Speculative retrieval: the raw-question (RAKE) full-text query starts
+     * immediately, concurrently with Gemini term extraction. If the terms
+     * arrive before the deadline a second query runs with them and both result
+     * sets are merged; otherwise the terms are abandoned and the speculative
+     * results are used as-is. Either way the LLM round-trip is off the
+     * critical path of the first query.
+     */
+    private CompletableFuture<List<ScoredMemory>> findRelevantMemoriesSpeculatively(String question,
+            CompletableFuture<List<String>> terms, String userId) {
+        CompletableFuture<List<ScoredMemory>> speculative = CompletableFuture.supplyAsync(
+                () -> findRelevantMemories(question, List.of(), userId, RELEVANT_LIMIT), applicationTaskExecutor);
+
+        // Time out a copy so the original still completes and warms the semantic cache
+        CompletableFuture<List<String>> termsOrTimeout = terms.copy()
+                .completeOnTimeout(List.of(), termsDeadlineMs, TimeUnit.MILLISECONDS);
+
+        return termsOrTimeout.thenCompose(keywords -> {
+            if (keywords.isEmpty()) {
+                log.debug("No Gemini search terms within {}ms, using speculative results", termsDeadlineMs);
+                return speculative;
+            }
+            CompletableFuture<List<ScoredMemory>> termed = CompletableFuture.supplyAsync(
+                    () -> findRelevantMemories(question, keywords, userId, RELEVANT_LIMIT), applicationTaskExecutor);
+            return speculative.thenCombine(termed, (a, b) -> mergeByMemory(a, b, RELEVANT_LIMIT));
+        });
+    }
 
-        // 3. Synthesize answer from memories
-        String synthesizedAnswer = synthesizeAnswer(question, relevantMemories, expandedContext);
+    /**
+     * Union of two ranked lists keyed by memory id, keeping the higher score.
+     */
+    static List<ScoredMemory> mergeByMemory(List<ScoredMemory> first, List<ScoredMemory> second, int limit) {
+        Map<Long, ScoredMemory> byId = new LinkedHashMap<>();
+        for (List<ScoredMemory> list : List.of(first, second)) {
+            for (ScoredMemory scored : list) {
+                byId.merge(scored.memory().getId(), scored, (a, b) -> a.score() >= b.score() ? a : b);
+            }
+        }
+        return byId.values().stream()
+                .sorted(Comparator.comparingDouble(ScoredMemory::score).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
 
+    private AnswerResponse buildResponse(String question, String synthesizedAnswer,
+            List<ScoredMemory> relevantMemories, List<ScoredMemory> expandedContext) {
         // 4. Build response with sources
         return AnswerResponse.builder()
                 .question(question)
@@ -65,15 +187,12 @@ public class AnswerSynthesisEngine {
     }
 
     /**
-     * Find memories relevant to the question using PostgreSQL full-text search.
+     * Find memories relevant to the question using PostgreSQL full-text search,
+     * driven by the Gemini search terms (or RAKE keywords when there are none).
      */
-    private List<ScoredMemory> findRelevantMemories(String question, String userId, int limit) {
-        log.info("Generating intelligent search terms for: '{}'", question);
-
-        // 1. Try to get intelligent search terms from Gemini
-        List<String> keywords = geminiService.extractSearchTerms(question);
-
-        // 2. Fallback to basic keyword extraction if Gemini fails or returns nothing
+    List<ScoredMemory> findRelevantMemories(String question, List<String> keywords, String userId,
+            int limit) {
+        // Fallback to basic keyword extraction if Gemini fails or returns nothing
         if (keywords.isEmpty()) {
             log.debug("Gemini returned no search terms, falling back to RAKE.");
             keywords = keywordService.extractKeywords(question, 5);
@@ -109,18 +228,13 @@ public class AnswerSynthesisEngine {
         // Use PostgreSQL full-text search with ranking
         // We use to_tsquery to support the OR (|) operator constructed from keywords
         String sql = """
-                SELECT m.id, m.title, m.content, m.importance_score, m.context, m.created_at,
-                       ts_rank(
-                           setweight(to_tsvector('english', COALESCE(m.title, '')), 'A') ||
-                           setweight(to_tsvector('english', COALESCE(m.content, '')), 'B'),
-                           to_tsquery('english', ?)
-                       ) as rank
+                SELECT m.id, m.title, m.content, m.importance_score, m.context, m.created_at, m.version,
+                       ts_rank(m.search_vector, to_tsquery('english', ?)) as rank
                 FROM memories m
                 WHERE m.user_id = ?
                   AND m.archived = false
                   AND (
-                      to_tsvector('english', COALESCE(m.title, '') || ' ' || COALESCE(m.content, ''))
-                      @@ to_tsquery('english', ?)
+                      m.search_vector @@ to_tsquery('english', ?)
                       OR LOWER(m.title) LIKE ?
                       OR LOWER(m.content) LIKE ?
                   )
@@ -141,16 +255,7 @@ public class AnswerSynthesisEngine {
 
         try {
             return jdbcTemplate.query(sql, (rs, rowNum) -> {
-                Memory memory = new Memory();
-                memory.setId(rs.getLong("id"));
-                memory.setTitle(rs.getString("title"));
-                memory.setContent(rs.getString("content"));
-                memory.setImportanceScore(rs.getInt("importance_score"));
-                var timestamp = rs.getTimestamp("created_at");
-                if (timestamp != null) {
-                    memory.setCreatedAt(timestamp.toInstant());
-                }
-
+                Memory memory = toMemory(rs);
                 double rank = rs.getDouble("rank");
                 double similarity = similarityService.cosineSimilarity(question,
                         memory.getTitle() + " " + memory.getContent());
@@ -170,19 +275,14 @@ public class AnswerSynthesisEngine {
         String pattern = "%" + question.toLowerCase() + "%";
 
         return jdbcTemplate.query("""
-                SELECT id, title, content, importance_score, created_at
+                SELECT id, title, content, importance_score, created_at, version
                 FROM memories
                 WHERE user_id = ? AND archived = false
                   AND (LOWER(title) LIKE ? OR LOWER(content) LIKE ?)
                 ORDER BY importance_score DESC
                 LIMIT ?
                 """, (rs, rowNum) -> {
-            Memory memory = new Memory();
-            memory.setId(rs.getLong("id"));
-            memory.setTitle(rs.getString("title"));
-            memory.setContent(rs.getString("content"));
-            memory.setImportanceScore(rs.getInt("importance_score"));
-
+            Memory memory = toMemory(rs);
             double similarity = similarityService.cosineSimilarity(question,
                     memory.getTitle() + " " + memory.getContent());
 
@@ -190,6 +290,24 @@ public class AnswerSynthesisEngine {
         }, userId, pattern, pattern, limit);
     }
 
+    /**
+     * Memory from a search row. The version feeds sourceVersions(), which
+     * keys the answer cache, so every search query must select it.
+     */
+    private static Memory toMemory(ResultSet rs) throws SQLException {
+        Memory memory = new Memory();
+        memory.setId(rs.getLong("id"));
+        memory.setTitle(rs.getString("title"));
+        memory.setContent(rs.getString("content"));
+        memory.setImportanceScore(rs.getInt("importance_score"));
+        memory.setVersion(rs.getLong("version"));
+        var timestamp = rs.getTimestamp("created_at");
+        if (timestamp != null) {
+            memory.setCreatedAt(timestamp.toInstant());
+        }
+        return memory;
+    }
+
     /**
      * Expand context by finding related memories via relationships.
      */
@@ -249,14 +367,44 @@ public class AnswerSynthesisEngine {
     /**
      * Synthesize a coherent answer from the relevant memories using Gemini LLM.
      */
-    private String synthesizeAnswer(String question,
+    private CompletableFuture<String> synthesizeAnswer(String question,
             List<ScoredMemory> relevantMemories,
             List<ScoredMemory> expandedContext) {
 
         if (relevantMemories.isEmpty()) {
-            return "I don't have enough information in your memories to answer that question.";
+            return CompletableFuture.completedFuture(NO_INFORMATION);
+        }
+
+        List<String> memoryContexts = buildMemoryContexts(relevantMemories, expandedContext);
+        log.info("Sending {} memory contexts to Gemini for synthesis", memoryContexts.size());
+
+        // Use proper LLM for synthesis
+        return geminiService.generateAnswerAsync(question, memoryContexts,
+                sourceVersions(relevantMemories, expandedContext));
+    }
+
+    /**
+     * The memories an answer is synthesized from, as memory ID -> version.
+     * Editing a memory bumps its version; contents are never hashed.
+     */
+    static Map<Long, Long> sourceVersions(List<ScoredMemory> relevantMemories, List<ScoredMemory> expandedContext) {
+        Map<Long, Long> versions = new TreeMap<>();
+        for (List<ScoredMemory> memories : List.of(relevantMemories, expandedContext)) {
+            for (ScoredMemory scored : memories) {
+                Memory m = scored.memory();
+                versions.put(m.getId(), m.getVersion() != null ? m.getVersion() : 0L);
+            }
         }
+        return versions;
+    }
 
+    private static CompletableFuture<String> noInformation(Consumer<String> onToken) {
+        onToken.accept(NO_INFORMATION);
+        return CompletableFuture.completedFuture(NO_INFORMATION);
+    }
+
+    private List<String> buildMemoryContexts(List<ScoredMemory> relevantMemories,
+            List<ScoredMemory> expandedContext) {
         // Collect memory contexts
         List<String> memoryContexts = new ArrayList<>();
 
@@ -274,10 +422,7 @@ public class AnswerSynthesisEngine {
                     m.getTitle(), m.getContent()));
         }
 
-        log.info("Sending {} memory contexts to Gemini for synthesis", memoryContexts.size());
-
-        // Use proper LLM for synthesis
-        return geminiService.generateAnswer(question, memoryContexts);
+        return memoryContexts;
     }
 
     /**
@@ -306,4 +451,7 @@ public class AnswerSynthesisEngine {
 
     public record ScoredMemory(Memory memory, double score) {
     }
+
+    private record RetrievedContext(List<ScoredMemory> relevant, List<ScoredMemory> expanded) {
+    }
 }
@@ -1,27 +1,45 @@
 package com.memory.context.engine.domain.intelligence;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.memory.context.engine.domain.memory.entity.Memory;
 import com.memory.context.engine.domain.intelligence.cache.SemanticCacheResult;
 import com.memory.context.engine.domain.intelligence.cache.SemanticCacheService;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Service to interact with Google's Gemini API.
  * Uses semantic caching with Jaccard similarity for intelligent cache matching.
+ *
+ * Calls go through a shared non-blocking HttpClient (HTTP/2, pooled
+ * connections). Every operation has a CompletableFuture variant; retries on
+ * 429/503 are scheduled on a delayed executor rather than sleeping the
+ * caller's thread.
  */
 @Slf4j
 @Service
@@ -33,55 +51,132 @@ public class GeminiService {
     @Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash:generateContent}")
     private String apiUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Defaults to apiUrl with :streamGenerateContent?alt=sse
+    @Value("${gemini.api.stream-url:}")
+    private String streamUrl;
+
+    @Value("${gemini.api.max-retries:3}")
+    private int maxRetries;
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    // Private mapper: the shared bean has default typing enabled for Redis
+    private final ObjectMapper objectMapper = new ObjectMapper();
     private final SemanticCacheService semanticCacheService;
 
     private static final String ANSWERS_CACHE = "gemini-answers";
     private static final String SEARCH_TERMS_CACHE = "gemini-search-terms";
 
-    public GeminiService(SemanticCacheService semanticCacheService) {
+    public GeminiService(SemanticCacheService semanticCacheService,
+            @Value("${gemini.api.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${gemini.api.request-timeout-ms:30000}") long requestTimeoutMs) {
         this.semanticCacheService = semanticCacheService;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
     }
 
     /**
      * Generate an answer using Gemini API with semantic caching.
-     * Similar questions will return cached answers based on keyword similarity.
+     * Similar questions will return cached answers based on keyword similarity,
+     * but only if they were answered from the same memories (the IDs in
+     * sourceVersions must match exactly).
+     *
+     * If those memories have been edited since (other versions), the cached
+     * answer is still returned immediately and a regeneration runs in the
+     * background (stale-while-revalidate).
+     */
+    public String generateAnswer(String question, List<String> memoryContexts, Map<Long, Long> sourceVersions) {
+        return generateAnswerAsync(question, memoryContexts, sourceVersions).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #generateAnswer}.
      */
-    public String generateAnswer(String question, List<String> memoryContexts) {
+    public CompletableFuture<String> generateAnswerAsync(String question, List<String> memoryContexts,
+            Map<Long, Long> sourceVersions) {
         if (apiKey == null || apiKey.isBlank()) {
             log.warn("Gemini API key is missing. Returning fallback response.");
-            return "I am unable to generate an intelligent answer because the AI service is not configured.";
+            return CompletableFuture.completedFuture(
+                    "I am unable to generate an intelligent answer because the AI service is not configured.");
         }
 
-        // Create a composite cache key that includes memory context hash
-        String cacheQuestion = question + "_ctx" + memoryContexts.hashCode();
-
-        // Try semantic cache lookup first
-        SemanticCacheResult cacheResult = semanticCacheService.lookup(ANSWERS_CACHE, cacheQuestion);
+        // Try semantic cache lookup first, within the entries for this context
+        String contextFingerprint = contextFingerprint(sourceVersions.keySet());
+        SemanticCacheResult cacheResult = semanticCacheService.lookup(ANSWERS_CACHE, contextFingerprint, question);
         if (cacheResult.isHit()) {
             log.info("Using semantically cached answer (similarity: {})",
                     String.format("%.2f", cacheResult.getSimilarityScore()));
-            return cacheResult.getCachedValue();
+            revalidateIfStale(cacheResult, memoryContexts, sourceVersions);
+            return CompletableFuture.completedFuture(cacheResult.getCachedValue());
         }
 
-        // Cache miss - generate new answer
-        String prompt = buildPrompt(question, memoryContexts);
-        String answer = callGemini(prompt, false);
+        // Cache miss - generate new answer, sharing any identical in-flight call
+        return loadAnswer(question, memoryContexts, sourceVersions);
+    }
 
-        // Store in semantic cache (unless it's an error response)
-        if (!answer.contains("Sorry") && !answer.contains("I don't have enough")) {
-            semanticCacheService.store(ANSWERS_CACHE, cacheQuestion, answer, 1.0);
+    /**
+     * Generates an answer and caches it, sharing any identical in-flight call.
+     */
+    private CompletableFuture<String> loadAnswer(String question, List<String> memoryContexts,
+            Map<Long, Long> sourceVersions) {
+        String contextFingerprint = contextFingerprint(sourceVersions.keySet());
+        return semanticCacheService.singleFlight(ANSWERS_CACHE, contextFingerprint, question,
+                () -> callGeminiAsync(buildPrompt(question, memoryContexts), false).thenApply(answer -> {
+                    // Store in semantic cache (unless it's an error response)
+                    if (!answer.contains("Sorry") && !answer.contains("I don't have enough")) {
+                        semanticCacheService.storeAsync(ANSWERS_CACHE, contextFingerprint, question, answer, 1.0,
+                                sourceVersions);
+                    }
+                    return answer;
+                }));
+    }
+
+    /**
+     * Regenerates a cached answer in the background if the memories it was
+     * built from have changed. The matched question is regenerated, so the
+     * fresh answer replaces the stale entry itself; concurrent stale hits
+     * share the one regeneration.
+     */
+    private void revalidateIfStale(SemanticCacheResult cacheResult, List<String> memoryContexts,
+            Map<Long, Long> sourceVersions) {
+        if (!cacheResult.isStale(sourceVersions)) {
+            return;
         }
+        log.info("Cached answer for '{}' was built from older memory versions, regenerating in background",
+                cacheResult.getMatchedQuestion());
+        loadAnswer(cacheResult.getMatchedQuestion(), memoryContexts, sourceVersions)
+                .exceptionally(e -> {
+                    log.warn("Background answer regeneration failed: {}", e.getMessage());
+                    return null;
+                });
+    }
 
-        return answer;
+    /**
+     * Exact-match cache partition for a set of memories: their IDs only,
+     * independent of order. Versions are checked per entry instead, so an
+     * edit makes an entry stale rather than unreachable.
+     */
+    static String contextFingerprint(Collection<Long> memoryIds) {
+        String ids = memoryIds.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+        return UUID.nameUUIDFromBytes(ids.getBytes(StandardCharsets.UTF_8)).toString().replace("-", "");
     }
 
     /**
      * Uses Gemini to decide if two memories should be intelligently linked.
      */
     public boolean shouldLink(Memory m1, Memory m2) {
+        return shouldLinkAsync(m1, m2).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #shouldLink}.
+     */
+    public CompletableFuture<Boolean> shouldLinkAsync(Memory m1, Memory m2) {
         if (apiKey == null || apiKey.isBlank()) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         String prompt = """
@@ -109,18 +204,24 @@ public class GeminiService {
                 """
                 .formatted(m1.getTitle(), m1.getContent(), m2.getTitle(), m2.getContent());
 
-        String response = callGemini(prompt, true);
-        return response != null && response.trim().equalsIgnoreCase("YES");
+        return callGeminiAsync(prompt, true)
+                .thenApply(response -> response != null && response.trim().equalsIgnoreCase("YES"));
     }
-                
 
     /**
      * Extracts search terms from the question using the LLM to understand intent.
      * Uses semantic caching - similar questions return cached search terms.
      */
     public List<String> extractSearchTerms(String question) {
+        return extractSearchTermsAsync(question).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #extractSearchTerms}.
+     */
+    public CompletableFuture<List<String>> extractSearchTermsAsync(String question) {
         if (apiKey == null || apiKey.isBlank()) {
-            return Collections.emptyList();
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
         // Try semantic cache lookup first
@@ -130,7 +231,7 @@ public class GeminiService {
                     String.format("%.2f", cacheResult.getSimilarityScore()));
             // Parse cached value back to list
             String cached = cacheResult.getCachedValue();
-            return new ArrayList<>(Arrays.asList(cached.split("\\|")));
+            return CompletableFuture.completedFuture(new ArrayList<>(Arrays.asList(cached.split("\\|"))));
         }
 
         // Cache miss - extract new search terms
@@ -151,93 +252,276 @@ public class GeminiService {
                 """
                 .formatted(question);
 
-        String response = callGemini(prompt, true);
-        if (response == null || response.isBlank()) {
-            return Collections.emptyList();
+        // Identical in-flight extractions share one Gemini call; the shared value is the pipe-joined terms
+        return semanticCacheService.singleFlight(SEARCH_TERMS_CACHE, question,
+                () -> callGeminiAsync(prompt, true).thenApply(response -> {
+                    if (response == null || response.isBlank()) {
+                        return "";
+                    }
+
+                    // Clean up response and split
+                    String terms = Arrays.stream(response.split("\\|"))
+                            .map(String::trim)
+                            .filter(s -> !s.isBlank())
+                            .collect(Collectors.joining("|"));
+
+                    // Store in semantic cache
+                    if (!terms.isEmpty()) {
+                        semanticCacheService.storeAsync(SEARCH_TERMS_CACHE, question, terms, 1.0);
+                    }
+
+                    return terms;
+                }))
+                .thenApply(terms -> terms.isEmpty()
+                        ? Collections.<String>emptyList()
+                        : new ArrayList<>(Arrays.asList(terms.split("\\|"))));
+    }
+
+    /**
+     * Streams an answer from Gemini's streamGenerateContent endpoint, passing
+     * each text chunk to onChunk as it arrives. The returned future completes
+     * with the full answer, which is written to the semantic cache. Cache hits
+     * and error messages are delivered as a single chunk. If the stream fails
+     * after chunks were already delivered the future completes exceptionally
+     * instead, so the error is not appended to a partial answer.
+     */
+    public CompletableFuture<String> streamAnswerAsync(String question, List<String> memoryContexts,
+            Map<Long, Long> sourceVersions, Consumer<String> onChunk) {
+        if (apiKey == null || apiKey.isBlank()) {
+            log.warn("Gemini API key is missing. Returning fallback response.");
+            return emit(onChunk,
+                    "I am unable to generate an intelligent answer because the AI service is not configured.");
         }
 
-        // Clean up response and split
-        List<String> terms = new ArrayList<>(Arrays.stream(response.split("\\|"))
-                .map(String::trim)
-                .filter(s -> !s.isBlank())
-                .toList());
+        String contextFingerprint = contextFingerprint(sourceVersions.keySet());
+        SemanticCacheResult cacheResult = semanticCacheService.lookup(ANSWERS_CACHE, contextFingerprint, question);
+        if (cacheResult.isHit()) {
+            log.info("Streaming semantically cached answer (similarity: {})",
+                    String.format("%.2f", cacheResult.getSimilarityScore()));
+            revalidateIfStale(cacheResult, memoryContexts, sourceVersions);
+            return emit(onChunk, cacheResult.getCachedValue());
+        }
 
-        // Store in semantic cache
-        if (!terms.isEmpty()) {
-            semanticCacheService.store(SEARCH_TERMS_CACHE, question, String.join("|", terms), 1.0);
+        HttpRequest request = buildRequest(streamEndpoint(), buildPrompt(question, memoryContexts));
+        if (request == null) {
+            return emit(onChunk, "Sorry, I encountered an error while communicating with the AI service.");
         }
 
-        return terms;
+        AtomicBoolean streamed = new AtomicBoolean();
+        Consumer<String> trackingChunk = chunk -> {
+            streamed.set(true);
+            onChunk.accept(chunk);
+        };
+        HttpResponse.BodyHandler<String> handler = info -> info.statusCode() / 100 == 2
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(new StreamingAnswerSubscriber(trackingChunk),
+                        StreamingAnswerSubscriber::answer, StandardCharsets.UTF_8, null)
+                : HttpResponse.BodySubscribers.replacing("");
+
+        return sendWithRetry(request, handler, 1, 1000)
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        String message = failureMessage(response.statusCode(), false);
+                        onChunk.accept(message);
+                        return message;
+                    }
+                    String answer = response.body().trim();
+                    if (answer.isEmpty()) {
+                        answer = "I couldn't generate an answer from the AI model.";
+                        onChunk.accept(answer);
+                    } else if (!answer.contains("Sorry") && !answer.contains("I don't have enough")) {
+                        semanticCacheService.storeAsync(ANSWERS_CACHE, contextFingerprint, question, answer, 1.0,
+                                sourceVersions);
+                    }
+                    return answer;
+                })
+                .exceptionally(e -> {
+                    log.error("Error streaming from Gemini API: ", e);
+                    if (streamed.get()) {
+                        throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                    }
+                    String message = "Sorry, I encountered an error while communicating with the AI service.";
+                    onChunk.accept(message);
+                    return message;
+                });
     }
 
-    private String callGemini(String prompt, boolean isSearchQuery) {
-        int maxRetries = 3;
-        long retryDelay = 1000; // Start with 1 second
+    private CompletableFuture<String> callGeminiAsync(String prompt, boolean isSearchQuery) {
+        HttpRequest request = buildRequest(apiUrl, prompt);
+        if (request == null) {
+            return CompletableFuture.completedFuture(
+                    isSearchQuery ? "" : "Sorry, I encountered an error while communicating with the AI service.");
+        }
 
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
+        return sendWithRetry(request, HttpResponse.BodyHandlers.ofByteArray(), 1, 1000)
+                .thenApply(response -> response.statusCode() / 100 == 2
+                        ? parseAnswer(response.body(), isSearchQuery)
+                        : failureMessage(response.statusCode(), isSearchQuery))
+                .exceptionally(e -> {
+                    log.error("Error calling Gemini API: ", e);
+                    return isSearchQuery ? "" : "Sorry, I encountered an error while communicating with the AI service.";
+                });
+    }
 
-                GeminiRequest request = new GeminiRequest();
-                request.setContents(Collections.singletonList(
-                        new Content(Collections.singletonList(
-                                new Part(prompt)))));
+    private HttpRequest buildRequest(String url, String prompt) {
+        GeminiRequest request = new GeminiRequest();
+        request.setContents(Collections.singletonList(
+                new Content(Collections.singletonList(
+                        new Part(prompt)))));
+
+        try {
+            String separator = url.contains("?") ? "&" : "?";
+            return HttpRequest.newBuilder(URI.create(url + separator + "key=" + apiKey))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                    .build();
+        } catch (Exception e) {
+            log.error("Error building Gemini request: ", e);
+            return null;
+        }
+    }
 
-                HttpEntity<GeminiRequest> entity = new HttpEntity<>(request, headers);
+    private String streamEndpoint() {
+        if (streamUrl != null && !streamUrl.isBlank()) {
+            return streamUrl;
+        }
+        return apiUrl.replace(":generateContent", ":streamGenerateContent") + "?alt=sse";
+    }
 
-                String url = apiUrl + "?key=" + apiKey;
-                GeminiResponse response = restTemplate.postForObject(url, entity, GeminiResponse.class);
+    /**
+     * Sends the request, retrying on 429/503. The next attempt is scheduled
+     * after the backoff (or the server's Retry-After) without holding a
+     * thread. The last response is returned once retries are exhausted.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendWithRetry(HttpRequest request,
+            HttpResponse.BodyHandler<T> handler, int attempt, long retryDelay) {
+        return httpClient.sendAsync(request, handler)
+                .thenCompose(response -> {
+                    int status = response.statusCode();
+                    if (status != 429 && status != 503) {
+                        if (status / 100 != 2) {
+                            log.error("Gemini API returned HTTP {}", status);
+                        }
+                        return CompletableFuture.completedFuture(response);
+                    }
 
-                if (response != null && response.getCandidates() != null && !response.getCandidates().isEmpty()) {
-                    Candidate candidate = response.getCandidates().get(0);
-                    if (candidate.getContent() != null && candidate.getContent().getParts() != null) {
-                        return candidate.getContent().getParts().get(0).getText().trim();
+                    if (attempt >= maxRetries) {
+                        log.error("Gemini API failed after {} attempts (HTTP {}).", maxRetries, status);
+                        return CompletableFuture.completedFuture(response);
                     }
-                }
 
-                return isSearchQuery ? "" : "I couldn't generate an answer from the AI model.";
+                    log.warn("Gemini API overloaded or rate limited (Attempt {}/{}). Retrying...", attempt,
+                            maxRetries);
 
-            } catch (org.springframework.web.client.HttpServerErrorException.ServiceUnavailable
-                    | org.springframework.web.client.HttpClientErrorException.TooManyRequests e) {
+                    // Compliance: Respect 'Retry-After' header if present
+                    long waitTime = response.headers().firstValue("Retry-After")
+                            .map(GeminiService::parseRetryAfterMillis)
+                            .orElse(retryDelay);
 
-                log.warn("Gemini API overloaded or rate limited (Attempt {}/{}). Retrying...", attempt, maxRetries);
+                    // Exponential backoff with jitter
+                    long nextDelay = (long) (retryDelay * (1.5 + ThreadLocalRandom.current().nextDouble() * 0.5));
 
-                if (attempt == maxRetries) {
-                    log.error("Gemini API failed after {} attempts.", maxRetries, e);
-                    return isSearchQuery ? ""
-                            : "Sorry, the AI service is currently overloaded. Please try again later.";
-                }
+                    return CompletableFuture
+                            .runAsync(() -> {
+                            }, CompletableFuture.delayedExecutor(waitTime, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> sendWithRetry(request, handler, attempt + 1, nextDelay));
+                });
+    }
 
-                // Compliance: Respect 'Retry-After' header if present
-                long waitTime = retryDelay;
-                String retryAfter = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst("Retry-After")
-                        : null;
-                if (retryAfter != null) {
-                    try {
-                        waitTime = Long.parseLong(retryAfter) * 1000;
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
+    private static String failureMessage(int status, boolean isSearchQuery) {
+        if (isSearchQuery) {
+            return "";
+        }
+        return status == 429 || status == 503
+                ? "Sorry, the AI service is currently overloaded. Please try again later."
+                : "Sorry, I encountered an error while communicating with the AI service.";
+    }
 
-                try {
-                    // Safe Wait: Allow thread to be interrupted (e.g. by container shutdown)
-                    TimeUnit.MILLISECONDS.sleep(waitTime);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt(); // Restore interrupt status
-                    log.warn("Operation interrupted during retry wait.");
-                    return isSearchQuery ? "" : "Operation interrupted.";
-                }
+    private static CompletableFuture<String> emit(Consumer<String> onChunk, String text) {
+        onChunk.accept(text);
+        return CompletableFuture.completedFuture(text);
+    }
 
-                // Exponential backoff with jitter
-                retryDelay = (long) (retryDelay * (1.5 + Math.random() * 0.5));
+    private String parseAnswer(byte[] body, boolean isSearchQuery) {
+        try {
+            GeminiResponse response = objectMapper.readValue(body, GeminiResponse.class);
+            String text = firstCandidateText(response);
+            if (text != null) {
+                return text.trim();
+            }
+        } catch (Exception e) {
+            log.error("Failed to parse Gemini response: {}", e.getMessage());
+        }
+        return isSearchQuery ? "" : "I couldn't generate an answer from the AI model.";
+    }
 
+    private static String firstCandidateText(GeminiResponse response) {
+        if (response != null && response.getCandidates() != null && !response.getCandidates().isEmpty()) {
+            Candidate candidate = response.getCandidates().get(0);
+            if (candidate.getContent() != null && candidate.getContent().getParts() != null
+                    && !candidate.getContent().getParts().isEmpty()) {
+                return candidate.getContent().getParts().get(0).getText();
+            }
+        }
+        return null;
+    }
+
+    // Returns null for non-numeric values so the computed backoff is used
+    private static Long parseRetryAfterMillis(String retryAfter) {
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Consumes the SSE body of streamGenerateContent line by line. Each
+     * "data:" line is one partial GenerateContentResponse.
+     */
+    private final class StreamingAnswerSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onChunk;
+        private final StringBuilder answer = new StringBuilder();
+
+        private StreamingAnswerSubscriber(Consumer<String> onChunk) {
+            this.onChunk = onChunk;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            try {
+                String text = firstCandidateText(
+                        objectMapper.readValue(line.substring(5).trim(), GeminiResponse.class));
+                if (text != null && !text.isEmpty()) {
+                    answer.append(text);
+                    onChunk.accept(text);
+                }
             } catch (Exception e) {
-                log.error("Error calling Gemini API: ", e);
-                return isSearchQuery ? "" : "Sorry, I encountered an error while communicating with the AI service.";
+                log.warn("Skipping unparseable Gemini stream chunk: {}", e.getMessage());
             }
         }
-        return isSearchQuery ? "" : "Sorry, I was unable to get a response from the AI service.";
+
+        @Override
+        public void onError(Throwable throwable) {
+            // Surfaced through the sendAsync future
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        private String answer() {
+            return answer.toString();
+        }
     }
 
     private String buildPrompt(String question, List<String> memoryContexts) {
@@ -6,8 +6,14 @@ import com.memory.context.engine.domain.intelligence.AskRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the Intelligent Answer Engine.
@@ -19,6 +25,8 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AskController {
 
+    private static final long STREAM_TIMEOUT_MS = 120_000;
+
     private final AnswerSynthesisEngine answerEngine;
 
     /**
@@ -35,14 +43,15 @@ public class AskController {
      * "confidence": 0.85,
      * "sources": [...]
      * }
+     *
+     * Handled asynchronously: the servlet thread is released while Gemini
+     * is working.
      */
     @PostMapping
-    public ResponseEntity<AnswerResponse> ask(@Valid @RequestBody AskRequest request) {
+    public CompletableFuture<ResponseEntity<AnswerResponse>> ask(@Valid @RequestBody AskRequest request) {
         log.info("Received question: {}", request.getQuestion());
 
-        AnswerResponse response = answerEngine.ask(request.getQuestion());
-
-        return ResponseEntity.ok(response);
+        return answerEngine.askAsync(request.getQuestion()).thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -50,11 +59,64 @@ public class AskController {
      * Example: GET /api/v1/ask?q=What+are+my+priorities
      */
     @GetMapping
-    public ResponseEntity<AnswerResponse> askGet(@RequestParam("q") String question) {
+    public CompletableFuture<ResponseEntity<AnswerResponse>> askGet(@RequestParam("q") String question) {
         log.info("Received question (GET): {}", question);
 
-        AnswerResponse response = answerEngine.ask(question);
+        return answerEngine.askAsync(question).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Ask a question and stream the answer as Server-Sent Events.
+     *
+     * Events, in order:
+     * - "sources": the response with sources and confidence (answer is null)
+     * - "token": {"text": "..."} for each answer chunk from Gemini
+     * - "done": the complete response, same shape as POST /api/v1/ask
+     * - "error": {"message": "..."} instead of "done" if the answer failed
+     * part-way; tokens already sent are an incomplete answer
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter askStream(@Valid @RequestBody AskRequest request) {
+        log.info("Received streaming question: {}", request.getQuestion());
+        return stream(request.getQuestion());
+    }
+
+    /**
+     * Streaming ask via GET, usable directly from EventSource.
+     * Example: GET /api/v1/ask/stream?q=What+are+my+priorities
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter askStreamGet(@RequestParam("q") String question) {
+        log.info("Received streaming question (GET): {}", question);
+        return stream(question);
+    }
+
+    private SseEmitter stream(String question) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+
+        answerEngine.askStreaming(question,
+                        context -> send(emitter, "sources", context),
+                        token -> send(emitter, "token", Map.of("text", token)))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Streaming answer failed", error);
+                        send(emitter, "error", Map.of("message", "The answer could not be completed"));
+                        emitter.complete();
+                        return;
+                    }
+                    send(emitter, "done", response);
+                    emitter.complete();
+                });
+
+        return emitter;
+    }
 
-        return ResponseEntity.ok(response);
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; generation still completes so the answer is cached
+            log.debug("Dropping '{}' event, stream closed: {}", event, e.getMessage());
+        }
     }
 }
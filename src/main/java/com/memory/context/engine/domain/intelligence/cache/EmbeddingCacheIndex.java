@@ -0,0 +1,114 @@
+package com.memory.context.engine.domain.intelligence.cache;
+
+import com.memory.context.engine.domain.search.index.HnswIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory ANN index over the question embeddings of L1 cache entries, one
+ * HNSW graph per scope (cache name, plus the partition if there is one). Used
+ * by the "embedding" semantic cache mode.
+ *
+ * Partitions such as answer context fingerprints come and go, so a graph is
+ * dropped as soon as its last entry is removed. The graphs key nodes by long
+ * IDs; this class maps them to and from entry keys.
+ */
+public class EmbeddingCacheIndex {
+
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int EF_SEARCH = 64;
+
+    private final int dimension;
+    private final Map<String, HnswIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByEntryKey = new ConcurrentHashMap<>();
+    private final Map<Long, String> entryKeysById = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public record Match(String entryKey, double similarity) {
+    }
+
+    public EmbeddingCacheIndex(int dimension) {
+        this.dimension = dimension;
+    }
+
+    public void add(String scope, String entryKey, float[] embedding) {
+        if (embedding == null || embedding.length != dimension) {
+            return;
+        }
+        long id = idsByEntryKey.computeIfAbsent(entryKey, k -> {
+            long newId = nextId.getAndIncrement();
+            entryKeysById.put(newId, k);
+            return newId;
+        });
+        // Inside compute() so a concurrent remove cannot drop the graph mid-insert
+        indexes.compute(scope, (key, index) -> {
+            HnswIndex target = index != null ? index : new HnswIndex(dimension, M, EF_CONSTRUCTION, EF_SEARCH);
+            target.upsert(id, embedding);
+            return target;
+        });
+    }
+
+    public void remove(String scope, String entryKey) {
+        Long id = idsByEntryKey.remove(entryKey);
+        if (id == null) {
+            return;
+        }
+        entryKeysById.remove(id);
+        indexes.computeIfPresent(scope, (key, index) -> {
+            index.remove(id);
+            return index.size() == 0 ? null : index;
+        });
+    }
+
+    /**
+     * Number of live graphs, one per scope with at least one entry.
+     */
+    public int graphCount() {
+        return indexes.size();
+    }
+
+    /**
+     * Up to k entries nearest to the query embedding, most similar first.
+     */
+    public List<Match> search(String scope, float[] query, int k) {
+        HnswIndex index = indexes.get(scope);
+        if (index == null || query.length != dimension) {
+            return List.of();
+        }
+        List<Match> matches = new ArrayList<>(k);
+        for (HnswIndex.Match match : index.search(query, k)) {
+            String entryKey = entryKeysById.get(match.memoryId());
+            if (entryKey != null) {
+                matches.add(new Match(entryKey, match.similarity()));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Cosine similarity; 0 when either side is missing (e.g. entries written
+     * before the embedding mode was enabled).
+     */
+    public static double cosine(float[] a, float[] b) {
+        if (a == null || b == null || a.length != b.length) {
+            return 0.0;
+        }
+        double dot = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0.0 || normB == 0.0) {
+            return 0.0;
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
@@ -0,0 +1,103 @@
+package com.memory.context.engine.domain.intelligence.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide dictionary interning cache keywords to dense int IDs, so
+ * keyword sets can be compared as sorted int arrays.
+ *
+ * Only keywords of cached entries are interned. Query keywords are looked up
+ * without growing the dictionary: a word no entry contains cannot intersect
+ * anything and only counts towards the union. IDs are local to this JVM and
+ * are never written to Redis.
+ *
+ * A dictionary only grows; its owner bounds it by replacing it with one
+ * rebuilt from the live entries. IDs are only comparable within the
+ * dictionary that assigned them, hence {@link Interned}.
+ */
+public class KeywordDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Query keywords as sorted known IDs plus a count of unknown words.
+     */
+    public record KeywordIds(int[] sortedIds, int unknownCount) {
+    }
+
+    /**
+     * An entry's sorted IDs, tagged with the dictionary that assigned them.
+     */
+    public record Interned(KeywordDictionary dictionary, int[] sortedIds) {
+    }
+
+    /**
+     * Interns every keyword and returns their IDs sorted ascending.
+     */
+    public int[] intern(Set<String> keywords) {
+        int[] result = new int[keywords.size()];
+        int i = 0;
+        for (String keyword : keywords) {
+            result[i++] = ids.computeIfAbsent(keyword, k -> nextId.getAndIncrement());
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Resolves keywords without interning new ones.
+     */
+    public KeywordIds lookup(Set<String> keywords) {
+        int[] known = new int[keywords.size()];
+        int count = 0;
+        for (String keyword : keywords) {
+            Integer id = ids.get(keyword);
+            if (id != null) {
+                known[count++] = id;
+            }
+        }
+        int[] sorted = Arrays.copyOf(known, count);
+        Arrays.sort(sorted);
+        return new KeywordIds(sorted, keywords.size() - count);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Jaccard similarity by merge-intersection of two sorted ID arrays;
+     * allocation-free.
+     */
+    public static double jaccard(KeywordIds query, int[] entryIds) {
+        int[] a = query.sortedIds();
+        int querySize = a.length + query.unknownCount();
+        if (querySize == 0 && entryIds.length == 0) {
+            return 1.0;
+        }
+        if (querySize == 0 || entryIds.length == 0) {
+            return 0.0;
+        }
+
+        int i = 0;
+        int j = 0;
+        int intersection = 0;
+        while (i < a.length && j < entryIds.length) {
+            if (a[i] == entryIds[j]) {
+                intersection++;
+                i++;
+                j++;
+            } else if (a[i] < entryIds[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) intersection / (querySize + entryIds.length - intersection);
+    }
+}
@@ -0,0 +1,90 @@
+package com.memory.context.engine.domain.intelligence.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MinHash signatures and LSH banding over keyword sets.
+ *
+ * A signature holds bands * rows minimum hash values; two sets agree on any
+ * one position with probability equal to their Jaccard similarity. Each band
+ * of rows is hashed into a bucket id, and two sets become lookup candidates
+ * when they share at least one bucket. The probability of that is
+ * 1 - (1 - J^rows)^bands, an S-curve whose midpoint sits near
+ * (1 / bands)^(1 / rows).
+ *
+ * Hashing is deterministic (String.hashCode plus fixed seeds), so
+ * signatures and bucket ids agree across JVMs sharing one Redis.
+ */
+public class MinHashLsh {
+
+    private final int bands;
+    private final int rows;
+    private final int[] seeds;
+
+    public MinHashLsh(int bands, int rows) {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("bands and rows must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new int[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            // Odd multiples of the golden ratio constant give well spread seeds
+            seeds[i] = mix(0x9E3779B9 * (2 * i + 1));
+        }
+    }
+
+    public int bands() {
+        return bands;
+    }
+
+    /**
+     * Similarity at which a pair has a 50% chance of sharing a bucket.
+     */
+    public double threshold() {
+        return Math.pow(1.0 / bands, 1.0 / rows);
+    }
+
+    public int[] signature(Set<String> keywords) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String keyword : keywords) {
+            int base = keyword.hashCode();
+            for (int i = 0; i < seeds.length; i++) {
+                int h = mix(base ^ seeds[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * One bucket id per band, formatted "{band}:{hash}".
+     */
+    public List<String> bucketIds(int[] signature) {
+        List<String> ids = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            int h = band;
+            for (int row = 0; row < rows; row++) {
+                h = 31 * h + signature[band * rows + row];
+            }
+            ids.add(band + ":" + Integer.toHexString(mix(h)));
+        }
+        return ids;
+    }
+
+    // Murmur3 32-bit finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -1,11 +1,13 @@
 package com.memory.context.engine.domain.intelligence.cache;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -22,6 +24,13 @@ public class SemanticCacheEntry implements Serializable {
     private String cachedValue;
     private Instant createdAt;
     private double relevanceScore; // Optional: track how relevant the answer was
+    private int[] minHashSignature; // LSH signature of normalizedKeywords
+    private float[] questionEmbedding; // Only set in embedding mode
+    private Map<Long, Long> sourceVersions; // Memory ID -> version the value was built from, if any
+
+    // Sorted KeywordDictionary IDs, assigned on first comparison (JVM-local)
+    @JsonIgnore
+    private transient KeywordDictionary.Interned keywordIds;
 
     public SemanticCacheEntry(String originalQuestion, Set<String> normalizedKeywords,
             String cachedValue, double relevanceScore) {
@@ -2,6 +2,7 @@ package com.memory.context.engine.domain.intelligence.cache;
 
 import lombok.Data;
 import java.io.Serializable;
+import java.util.Map;
 
 /**
  * Result of a semantic cache lookup.
@@ -14,12 +15,26 @@ public class SemanticCacheResult implements Serializable {
     private final String cachedValue;
     private final double similarityScore;
     private final String matchedQuestion;
+    private final Map<Long, Long> sourceVersions; // As recorded on the matched entry, may be null
 
     public static SemanticCacheResult miss() {
-        return new SemanticCacheResult(false, null, 0.0, null);
+        return new SemanticCacheResult(false, null, 0.0, null, null);
     }
 
     public static SemanticCacheResult hit(String value, double similarity, String matchedQuestion) {
-        return new SemanticCacheResult(true, value, similarity, matchedQuestion);
+        return hit(value, similarity, matchedQuestion, null);
+    }
+
+    public static SemanticCacheResult hit(String value, double similarity, String matchedQuestion,
+            Map<Long, Long> sourceVersions) {
+        return new SemanticCacheResult(true, value, similarity, matchedQuestion, sourceVersions);
+    }
+
+    /**
+     * True if the matched entry was built from other memory versions than
+     * currentVersions. Entries that recorded no sources are never stale.
+     */
+    public boolean isStale(Map<Long, Long> currentVersions) {
+        return hit && sourceVersions != null && !sourceVersions.equals(currentVersions);
     }
 }
@@ -2,16 +2,34 @@ package com.memory.context.engine.domain.intelligence.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.memory.context.engine.domain.intelligence.KeywordExtractionService;
+import com.memory.context.engine.domain.search.embedding.EmbeddingProvider;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -19,18 +37,61 @@ import java.util.stream.Collectors;
  * 
  * Performance optimizations:
  * 1. Caffeine L1 in-memory cache (sub-millisecond lookups)
- * 2. Batch Redis multiGet (single network round-trip)
- * 3. Jaccard similarity for semantic matching
+ * 2. MinHash/LSH bucket index in Redis: a lookup reads a fixed number of
+ *    bucket sets and only gets candidates already near the threshold
+ * 3. Batch Redis multiGet (single network round-trip)
+ * 4. Jaccard similarity for semantic matching
+ * 5. Single-flight loading: concurrent misses for the same keyword set share
+ *    one in-flight computation
+ * 6. Local mirror of the LSH buckets for L1 entries, so hot questions are
+ *    answered without any Redis I/O. Other instances' writes invalidate it
+ *    over Redis pub/sub.
+ * 7. Per cache name TTL and size bounds. L1 is one Caffeine cache per name,
+ *    whose W-TinyLFU policy only admits a new entry over the eviction victim
+ *    if it has been seen more often, so one-off questions do not flush the
+ *    hot set. Only lookup winners are admitted from Redis. In Redis, a sorted
+ *    set of last-hit times per cache name caps the entry count (LRU).
+ *
+ * Matching modes (semantic.cache.mode):
+ * - jaccard (default): keyword-set Jaccard against similarity-threshold
+ * - embedding: entries carry the question embedding from the configured
+ *   EmbeddingProvider; L1 entries are searched through an in-memory HNSW
+ *   index and scored by cosine against a per-cache-name threshold. LSH
+ *   buckets still supply candidates from Redis.
+ *
+ * Partitions: callers may pass a partition (e.g. a context fingerprint) that
+ * must match exactly. It scopes entry keys, LSH buckets and the ANN index,
+ * so fuzzy matching only ever compares questions within one partition.
  */
 @Slf4j
 @Service
-public class SemanticCacheService {
+public class SemanticCacheService implements MessageListener {
 
     private final KeywordExtractionService keywordExtractionService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final EmbeddingProvider embeddingProvider;
 
-    // L1 in-memory cache for hot entries (Caffeine)
-    private Cache<String, SemanticCacheEntry> l1Cache;
+    // L1 in-memory caches for hot entries (Caffeine), one per cache name
+    private final Map<String, Cache<String, SemanticCacheEntry>> l1Caches = new ConcurrentHashMap<>();
+
+    // Entry key -> last local hit time, written to the Redis LRU sets with the next store
+    private final Map<String, Long> pendingTouches = new ConcurrentHashMap<>();
+
+    // Local LSH bucket key -> entry keys, covering exactly the entries in L1
+    private final Map<String, Set<String>> localBuckets = new ConcurrentHashMap<>();
+
+    // Keyword -> int ID, shared by all cache names. Replaced by a rebuilt copy
+    // once it outgrows L1; lookups keep using the one they started with.
+    private volatile KeywordDictionary keywordDictionary = new KeywordDictionary();
+    private final AtomicBoolean rebuildingDictionary = new AtomicBoolean();
+    private volatile int lastRebuiltDictionarySize;
+
+    // Identifies this instance's own invalidation messages
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // In-flight loads keyed like cache entries (cache name + sorted keywords)
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
 
     @Value("${semantic.cache.similarity-threshold:0.70}")
     private double similarityThreshold;
@@ -44,10 +105,91 @@ public class SemanticCacheService {
     @Value("${semantic.cache.l1-max-size:1000}")
     private int l1MaxSize;
 
+    @Value("${semantic.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${semantic.cache.keyword-dictionary.min-size:10000}")
+    private int dictionaryMinSize;
+
+    // Per cache name overrides of ttl-minutes, l1-max-size and max-entries
+    @Value("#{${semantic.cache.per-cache.ttl-minutes:{:}}}")
+    private Map<String, Long> ttlMinutesByCache;
+
+    @Value("#{${semantic.cache.per-cache.l1-max-size:{:}}}")
+    private Map<String, Integer> l1MaxSizeByCache;
+
+    @Value("#{${semantic.cache.per-cache.max-entries:{:}}}")
+    private Map<String, Integer> maxEntriesByCache;
+
+    @Value("${semantic.cache.lsh.bands:16}")
+    private int lshBands;
+
+    @Value("${semantic.cache.lsh.rows:4}")
+    private int lshRows;
+
+    @Value("${semantic.cache.mode:jaccard}")
+    private String mode;
+
+    @Value("${semantic.cache.embedding.threshold:0.90}")
+    private double embeddingThreshold;
+
+    // Per cache name, e.g. {'gemini-answers': 0.95}; falls back to embeddingThreshold
+    @Value("#{${semantic.cache.embedding.thresholds:{:}}}")
+    private Map<String, Double> embeddingThresholds;
+
+    private MinHashLsh minHashLsh;
+
+    // Only set in embedding mode
+    private EmbeddingCacheIndex embeddingIndex;
+
+    // Rebuild the keyword dictionary once it holds more words than this per L1 entry
+    private static final int DICTIONARY_KEYWORDS_PER_ENTRY = 16;
+
     // Cache namespace prefixes
     private static final String CACHE_INDEX_KEY = "semantic:index";
     private static final String CACHE_ENTRY_PREFIX = "semantic:entry:";
-    private static final String CACHE_INVERTED_INDEX_PREFIX = "semantic:inverted:";
+    private static final String CACHE_LSH_PREFIX = "semantic:lsh:";
+    private static final String CACHE_LRU_PREFIX = "semantic:lru:";
+    static final String INVALIDATION_CHANNEL = "semantic:invalidate";
+
+    // Sender of LRU trim invalidations; not an instance id, so every instance
+    // (including the one that trimmed) drops the victims from its L1
+    private static final String TRIM_SENDER = "lru-trim";
+
+    /**
+     * Flushes pending touches and enforces max-entries in one server-side step,
+     * run inside the store's MULTI.
+     *
+     * KEYS: lru zset, index set, then (lru zset, entry key) per touch.
+     * ARGV: capacity, invalidation channel, message prefix, then
+     * (serialized member, score) per touch.
+     *
+     * A touch is only applied while its entry still exists, so a hit recorded
+     * before an eviction cannot put the victim back into the LRU set. Victims
+     * are deleted with their index membership; their LSH bucket entries are
+     * left to the lazy stale-bucket cleanup and the bucket TTL. Members are
+     * JSON strings (the template's value serializer), hence cjson.
+     */
+    private static final RedisScript<Long> LRU_SCRIPT = new DefaultRedisScript<>("""
+            for i = 3, #KEYS, 2 do
+              if redis.call('EXISTS', KEYS[i + 1]) == 1 then
+                redis.call('ZADD', KEYS[i], ARGV[i + 2], ARGV[i + 1])
+              end
+            end
+            local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[1])
+            if excess <= 0 then
+              return 0
+            end
+            local victims = redis.call('ZRANGE', KEYS[1], 0, excess - 1)
+            for _, member in ipairs(victims) do
+              local key = cjson.decode(member)
+              redis.call('DEL', key)
+              redis.call('SREM', KEYS[2], member)
+              redis.call('PUBLISH', ARGV[2], cjson.encode(ARGV[3] .. key))
+            end
+            redis.call('ZREM', KEYS[1], unpack(victims))
+            return #victims
+            """, Long.class);
 
     // Common stop words for question normalization
     private static final Set<String> QUESTION_STOP_WORDS = Set.of(
@@ -64,20 +206,82 @@ public class SemanticCacheService {
             "gcp");
 
     public SemanticCacheService(KeywordExtractionService keywordExtractionService,
-            RedisTemplate<String, Object> redisTemplate) {
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            EmbeddingProvider embeddingProvider) {
         this.keywordExtractionService = keywordExtractionService;
         this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.embeddingProvider = embeddingProvider;
     }
 
     @PostConstruct
     public void init() {
-        // Initialize Caffeine L1 cache
-        this.l1Cache = Caffeine.newBuilder()
-                .maximumSize(l1MaxSize)
-                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+        this.minHashLsh = new MinHashLsh(lshBands, lshRows);
+        log.info("Semantic cache LSH: {} bands x {} rows (50% candidate rate at similarity {})",
+                lshBands, lshRows, String.format("%.2f", minHashLsh.threshold()));
+
+        log.info("Semantic cache defaults: ttl={}min, l1MaxSize={}, maxEntries={} (per cache: ttl={}, l1={}, max={})",
+                ttlMinutes, l1MaxSize, maxEntries, ttlMinutesByCache, l1MaxSizeByCache, maxEntriesByCache);
+
+        if ("embedding".equalsIgnoreCase(mode)) {
+            this.embeddingIndex = new EmbeddingCacheIndex(embeddingProvider.dimension());
+            log.info("Semantic cache in embedding mode (provider '{}', default threshold {}, per cache {})",
+                    embeddingProvider.getName(), embeddingThreshold, embeddingThresholds);
+        }
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    private boolean embeddingMode() {
+        return embeddingIndex != null;
+    }
+
+    private Cache<String, SemanticCacheEntry> l1(String cacheName) {
+        return l1Caches.computeIfAbsent(cacheName, this::newL1Cache);
+    }
+
+    /**
+     * Caffeine L1 for one cache name; the local bucket index follows its removals.
+     */
+    private Cache<String, SemanticCacheEntry> newL1Cache(String cacheName) {
+        int maxSize = perCache(l1MaxSizeByCache, cacheName, l1MaxSize);
+        long ttl = ttlMinutes(cacheName);
+        log.info("Initialized L1 Caffeine cache '{}' with maxSize={}, ttl={}min", cacheName, maxSize, ttl);
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.MINUTES)
+                .removalListener((String key, SemanticCacheEntry entry, RemovalCause cause) -> {
+                    // A replacement keeps the same key and therefore the same buckets
+                    if (key != null && cause != RemovalCause.REPLACED) {
+                        unindexLocal(key);
+                    }
+                })
+                // Run the listener inline so the index is updated before the next lookup
+                .executor(Runnable::run)
                 .recordStats()
                 .build();
-        log.info("Initialized L1 Caffeine cache with maxSize={}, ttl={}min", l1MaxSize, ttlMinutes);
+    }
+
+    private long ttlMinutes(String cacheName) {
+        return perCache(ttlMinutesByCache, cacheName, ttlMinutes);
+    }
+
+    private static <T> T perCache(Map<String, T> overrides, String cacheName, T defaultValue) {
+        return overrides != null ? overrides.getOrDefault(cacheName, defaultValue) : defaultValue;
+    }
+
+    /**
+     * Hit threshold for a cache: per cache name in embedding mode, the global
+     * Jaccard threshold otherwise.
+     */
+    private double threshold(String cacheName) {
+        if (!embeddingMode()) {
+            return similarityThreshold;
+        }
+        return embeddingThresholds != null
+                ? embeddingThresholds.getOrDefault(cacheName, embeddingThreshold)
+                : embeddingThreshold;
     }
 
     /**
@@ -113,6 +317,7 @@ public class SemanticCacheService {
 
     /**
      * Calculate Jaccard similarity between two keyword sets.
+     * Lookups use the interned form (KeywordDictionary.jaccard) instead.
      */
     public double calculateSimilarity(Set<String> set1, Set<String> set2) {
         if (set1.isEmpty() && set2.isEmpty())
@@ -120,20 +325,30 @@ public class SemanticCacheService {
         if (set1.isEmpty() || set2.isEmpty())
             return 0.0;
 
-        Set<String> intersection = new HashSet<>(set1);
-        intersection.retainAll(set2);
-
-        Set<String> union = new HashSet<>(set1);
-        union.addAll(set2);
+        Set<String> smaller = set1.size() <= set2.size() ? set1 : set2;
+        Set<String> larger = smaller == set1 ? set2 : set1;
+        int intersection = 0;
+        for (String keyword : smaller) {
+            if (larger.contains(keyword)) {
+                intersection++;
+            }
+        }
 
-        return (double) intersection.size() / union.size();
+        return (double) intersection / (set1.size() + set2.size() - intersection);
     }
 
     /**
      * Look up a semantically similar cached answer.
-     * Optimized with Inverted Index (O(K)) and L1 cache.
+     * Optimized with the LSH bucket index (fixed number of keys) and L1 cache.
      */
     public SemanticCacheResult lookup(String cacheName, String question) {
+        return lookup(cacheName, null, question);
+    }
+
+    /**
+     * Look up a cached answer among entries stored under the same partition.
+     */
+    public SemanticCacheResult lookup(String cacheName, String partition, String question) {
         if (!cacheEnabled) {
             return SemanticCacheResult.miss();
         }
@@ -145,22 +360,30 @@ public class SemanticCacheService {
         }
 
         try {
-            // Step 1: Use Inverted Index to find candidate entry keys
-            // We construct the list of set keys to union:
-            // semantic:inverted:{cacheName}:{keyword}
-            List<String> invertedIndexKeys = queryKeywords.stream()
-                    .map(kw -> CACHE_INVERTED_INDEX_PREFIX + cacheName + ":" + kw)
-                    .collect(Collectors.toList());
-
-            if (invertedIndexKeys.isEmpty()) {
-                return SemanticCacheResult.miss();
+            KeywordDictionary dictionary = keywordDictionary;
+            String scope = scope(cacheName, partition);
+            List<String> bucketKeys = bucketKeys(scope, minHashLsh.signature(queryKeywords));
+            float[] queryEmbedding = embeddingMode() ? embeddingProvider.embed(question) : null;
+            double threshold = threshold(cacheName);
+
+            // Step 0: Try the local L1 index (ANN or bucket mirror), no network I/O
+            SemanticCacheResult localResult = queryEmbedding != null
+                    ? lookupLocalByEmbedding(cacheName, scope, queryEmbedding, threshold)
+                    : lookupLocal(cacheName, bucketKeys, dictionary, dictionary.lookup(queryKeywords));
+            if (localResult.isHit()) {
+                log.info("Cache HIT (local) in {}ms: similarity={} for '{}'",
+                        System.currentTimeMillis() - startTime,
+                        String.format("%.2f", localResult.getSimilarityScore()), question);
+                return localResult;
             }
 
-            // Union distinct parts to get all potentially relevant entry keys
-            Set<Object> candidateKeyObjs = redisTemplate.opsForSet().union(invertedIndexKeys);
+            // Step 1: Read the LSH buckets of the query signature. Only entries
+            // sharing at least one band with the query come back, so the
+            // candidate set stays small however large the cache grows.
+            Set<Object> candidateKeyObjs = redisTemplate.opsForSet().union(bucketKeys);
 
             if (candidateKeyObjs == null || candidateKeyObjs.isEmpty()) {
-                log.debug("No candidates found in inverted index for keywords: {}", queryKeywords);
+                log.debug("No LSH candidates for keywords: {}", queryKeywords);
                 return SemanticCacheResult.miss();
             }
 
@@ -168,20 +391,19 @@ public class SemanticCacheService {
                     .map(Object::toString)
                     .collect(Collectors.toList());
 
-            // Limit candidates to avoid potential explosion (though unlikely with natural
-            // language)
-            if (candidateKeys.size() > 500) {
-                candidateKeys = candidateKeys.subList(0, 500);
-            }
-
             // Step 2: Check L1 cache first, collect keys that need Redis lookup
+            Cache<String, SemanticCacheEntry> l1Cache = l1(cacheName);
             List<SemanticCacheEntry> entries = new ArrayList<>();
+            List<String> entryKeys = new ArrayList<>();
             List<String> keysToFetch = new ArrayList<>();
 
             for (String key : candidateKeys) {
                 SemanticCacheEntry l1Entry = l1Cache.getIfPresent(key);
                 if (l1Entry != null) {
                     entries.add(l1Entry);
+                    entryKeys.add(key);
+                    // Self-heal the local index if a concurrent removal dropped it
+                    indexLocally(scope, key, l1Entry);
                 } else {
                     keysToFetch.add(key);
                 }
@@ -195,39 +417,52 @@ public class SemanticCacheService {
                         Object result = redisResults.get(i);
                         String entryKey = keysToFetch.get(i);
                         if (result instanceof SemanticCacheEntry entry) {
+                            keywordIds(entry, dictionary);
                             entries.add(entry);
-                            // Populate L1 cache
-                            l1Cache.put(entryKey, entry);
+                            entryKeys.add(entryKey);
                         } else if (result == null) {
-                            // FIX: Lazy Cleanup for Inverted Index Drift
-                            // Entry is gone from main store (TTL expired), but still in inverted index.
-                            // We schedule it for removal from inverted index sets for THIS query's
-                            // keywords.
-                            cleanupStaleInvertedIndexEntriesAsync(cacheName, entryKey);
+                            // Lazy cleanup for index drift: the entry expired but
+                            // is still referenced from its LSH buckets.
+                            cleanupStaleBucketEntries(scope, entryKey);
                         }
                     }
                 }
+                compactDictionaryIfNeeded();
             }
 
-            // Step 4: Find best match using Jaccard similarity
+            // Step 4: Find best match by cosine (embedding mode) or Jaccard over
+            // interned IDs. Resolve the query after the candidates are interned
+            // so none of their words count as unknown.
+            KeywordDictionary.KeywordIds queryIds = dictionary.lookup(queryKeywords);
             SemanticCacheEntry bestMatch = null;
+            String bestKey = null;
             double bestSimilarity = 0.0;
 
-            for (SemanticCacheEntry entry : entries) {
-                double similarity = calculateSimilarity(queryKeywords, entry.getNormalizedKeywords());
+            for (int i = 0; i < entries.size(); i++) {
+                SemanticCacheEntry entry = entries.get(i);
+                double similarity = queryEmbedding != null
+                        ? EmbeddingCacheIndex.cosine(queryEmbedding, entry.getQuestionEmbedding())
+                        : KeywordDictionary.jaccard(queryIds, keywordIds(entry, dictionary));
                 if (similarity > bestSimilarity) {
                     bestSimilarity = similarity;
                     bestMatch = entry;
+                    bestKey = entryKeys.get(i);
                 }
             }
 
             long elapsed = System.currentTimeMillis() - startTime;
 
-            if (bestMatch != null && bestSimilarity >= similarityThreshold) {
+            if (bestMatch != null && bestSimilarity >= threshold) {
                 log.info("Cache HIT in {}ms: similarity={} for '{}'",
                         elapsed, String.format("%.2f", bestSimilarity), question);
+                // Only the winner is offered to L1; losing candidates would
+                // only dilute it
+                if (!l1Cache.asMap().containsKey(bestKey)) {
+                    cacheLocally(scope, bestKey, bestMatch);
+                }
+                touch(bestKey);
                 return SemanticCacheResult.hit(bestMatch.getCachedValue(), bestSimilarity,
-                        bestMatch.getOriginalQuestion());
+                        bestMatch.getOriginalQuestion(), bestMatch.getSourceVersions());
             }
 
             log.debug("Cache MISS in {}ms: best similarity={} (searched {} candidates)",
@@ -240,10 +475,47 @@ public class SemanticCacheService {
         }
     }
 
+    /**
+     * Store an entry in the semantic cache off the caller's thread, so answer
+     * latency does not include the cache write.
+     */
+    @Async
+    public void storeAsync(String cacheName, String question, String value, double relevanceScore) {
+        store(cacheName, null, question, value, relevanceScore);
+    }
+
+    /**
+     * Partitioned variant of {@link #storeAsync(String, String, String, double)}.
+     * sourceVersions (memory ID -> version) is recorded on the entry and
+     * returned with hits, so callers can tell when its sources have changed.
+     */
+    @Async
+    public void storeAsync(String cacheName, String partition, String question, String value,
+            double relevanceScore, Map<Long, Long> sourceVersions) {
+        store(cacheName, partition, question, value, relevanceScore, sourceVersions);
+    }
+
     /**
      * Store an entry in the semantic cache.
      */
     public void store(String cacheName, String question, String value, double relevanceScore) {
+        store(cacheName, null, question, value, relevanceScore);
+    }
+
+    /**
+     * Store an entry under a partition; only lookups with the same partition
+     * can match it.
+     */
+    public void store(String cacheName, String partition, String question, String value,
+            double relevanceScore) {
+        store(cacheName, partition, question, value, relevanceScore, null);
+    }
+
+    /**
+     * Store a partitioned entry along with the memory versions it was built from.
+     */
+    public void store(String cacheName, String partition, String question, String value,
+            double relevanceScore, Map<Long, Long> sourceVersions) {
         if (!cacheEnabled) {
             return;
         }
@@ -255,38 +527,131 @@ public class SemanticCacheService {
 
         try {
             SemanticCacheEntry entry = new SemanticCacheEntry(question, keywords, value, relevanceScore);
-            // Construct a consistent key based on the sorted keywords to avoid duplicates
-            // for same intent
-            String entryKey = CACHE_ENTRY_PREFIX + cacheName + ":" +
-                    keywords.stream().sorted().collect(Collectors.joining("_"));
+            entry.setMinHashSignature(minHashLsh.signature(keywords));
+            entry.setSourceVersions(sourceVersions);
+            if (embeddingMode()) {
+                entry.setQuestionEmbedding(embeddingProvider.embed(question));
+            }
+            String scope = scope(cacheName, partition);
+            String entryKey = entryKey(scope, keywords);
             String indexKey = CACHE_INDEX_KEY + ":" + cacheName;
+            String lruKey = CACHE_LRU_PREFIX + cacheName;
+            Map<String, Long> touches = drainTouches();
+
+            Duration ttl = Duration.ofMinutes(ttlMinutes(cacheName));
+            List<String> bucketKeys = bucketKeys(scope, entry.getMinHashSignature());
+
+            // All writes go out as one pipelined MULTI/EXEC: a single network
+            // round-trip, applied atomically on the server
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.multi();
+
+                    // 1. Store the actual entry
+                    ops.opsForValue().set(entryKey, entry, ttl);
+
+                    // 2. Add to global index (kept for admin/cleanup mostly)
+                    ops.opsForSet().add(indexKey, entryKey);
+                    ops.expire(indexKey, ttl); // Refresh TTL on the index itself
+
+                    // 3. Add the entry to one LSH bucket per band
+                    for (String bucketKey : bucketKeys) {
+                        ops.opsForSet().add(bucketKey, entryKey);
+                        // Slide the bucket TTL forward with its newest member
+                        ops.expire(bucketKey, ttl);
+                    }
 
-            Duration ttl = Duration.ofMinutes(ttlMinutes);
-
-            // 1. Store the actual entry
-            redisTemplate.opsForValue().set(entryKey, entry, ttl);
+                    // 4. Record this entry's last-hit time, then flush local hits
+                    // since the last store and trim to max-entries server-side
+                    ops.opsForZSet().add(lruKey, entryKey, System.currentTimeMillis());
+                    ops.expire(lruKey, ttl);
+                    updateLru(ops, cacheName, indexKey, lruKey, touches);
 
-            // 2. Add to global index (kept for admin/cleanup mostly)
-            redisTemplate.opsForSet().add(indexKey, entryKey);
-            redisTemplate.expire(indexKey, ttl); // Refresh TTL on the index itself
+                    ops.exec();
 
-            // 3. Update Inverted Indices for EACH keyword
-            for (String keyword : keywords) {
-                String invertedKey = CACHE_INVERTED_INDEX_PREFIX + cacheName + ":" + keyword;
-                redisTemplate.opsForSet().add(invertedKey, entryKey);
-                // Set TTL on the inverted index key as well (slide it forward)
-                redisTemplate.expire(invertedKey, ttl);
-            }
+                    // 5. Tell other instances to drop their L1 copy of this entry
+                    ops.convertAndSend(INVALIDATION_CHANNEL, instanceId + "|entry|" + entryKey);
+                    return null;
+                }
+            });
 
-            // 4. Also store in L1 cache
-            l1Cache.put(entryKey, entry);
+            // 6. Also store in L1 cache
+            cacheLocally(scope, entryKey, entry);
 
-            log.info("Stored in cache '{}': keywords={}", cacheName, keywords);
+            log.info("Stored in cache '{}': keywords={}", scope, keywords);
         } catch (Exception e) {
             log.warn("Error storing in cache: {}", e.getMessage());
         }
     }
 
+    /**
+     * Single-flight wrapper for cache misses. Concurrent callers whose
+     * questions normalize to the same keyword set get the same in-flight
+     * future, so only the first one invokes the loader (e.g. a Gemini call).
+     * The loader is expected to store its own result; the in-flight slot is
+     * released once it completes. Scope is this JVM only.
+     */
+    public CompletableFuture<String> singleFlight(String cacheName, String question,
+            Supplier<CompletableFuture<String>> loader) {
+        return singleFlight(cacheName, null, question, loader);
+    }
+
+    /**
+     * Partitioned variant of {@link #singleFlight(String, String, Supplier)}.
+     */
+    public CompletableFuture<String> singleFlight(String cacheName, String partition, String question,
+            Supplier<CompletableFuture<String>> loader) {
+        Set<String> keywords = normalizeQuestion(question);
+        if (keywords.isEmpty()) {
+            return loader.get();
+        }
+
+        String flightKey = entryKey(scope(cacheName, partition), keywords);
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            log.info("Joining in-flight load for cache '{}': keywords={}", cacheName, keywords);
+            // Copy so one caller cancelling does not affect the others
+            return existing.copy();
+        }
+
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inFlight.remove(flightKey, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(flightKey, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    /**
+     * Consistent key based on the sorted keywords, so questions with the same
+     * intent map to the same entry. The scope is the cache name, plus the
+     * partition if any: semantic:entry:{cacheName}[:{partition}]:{keywords}
+     */
+    private static String entryKey(String scope, Set<String> keywords) {
+        return CACHE_ENTRY_PREFIX + scope + ":" + keywords.stream().sorted().collect(Collectors.joining("_"));
+    }
+
+    /**
+     * Key namespace for a cache name and optional partition. Prefix scans on
+     * the cache name (clearCache, remote invalidation) still cover every
+     * partition.
+     */
+    private static String scope(String cacheName, String partition) {
+        return partition == null || partition.isBlank() ? cacheName : cacheName + ":" + partition;
+    }
+
     /**
      * Clear all entries from a cache namespace.
      */
@@ -298,23 +663,26 @@ public class SemanticCacheService {
                 for (Object key : entryKeys) {
                     String keyStr = key.toString();
                     redisTemplate.delete(keyStr);
-                    l1Cache.invalidate(keyStr);
                 }
             }
             redisTemplate.delete(indexKey);
+            redisTemplate.delete(CACHE_LRU_PREFIX + cacheName);
 
-            // Also attempt to clean up inverted indexes using keys scanning (admin op)
+            // Also attempt to clean up LSH buckets using keys scanning (admin op)
             // Note: In a massive production cluster, we might rely on TTLs instead
             // FIX: Safer bulk delete using SCAN instead of KEYS
             try {
-                Set<String> invertedKeys = scanKeys(CACHE_INVERTED_INDEX_PREFIX + cacheName + ":*");
-                if (invertedKeys != null && !invertedKeys.isEmpty()) {
-                    redisTemplate.delete(invertedKeys);
+                Set<String> bucketKeys = scanKeys(CACHE_LSH_PREFIX + cacheName + ":*");
+                if (bucketKeys != null && !bucketKeys.isEmpty()) {
+                    redisTemplate.delete(bucketKeys);
                 }
             } catch (Exception e) {
-                log.warn("Could not bulk delete inverted keys, relying on TTL: {}", e.getMessage());
+                log.warn("Could not bulk delete LSH bucket keys, relying on TTL: {}", e.getMessage());
             }
 
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + "|clear|" + cacheName);
+            invalidateLocalCache(cacheName);
+
             log.info("Cleared cache '{}'", cacheName);
 
         } catch (Exception e) {
@@ -323,20 +691,256 @@ public class SemanticCacheService {
     }
 
     /**
-     * Remove a stale entry from inverted indices.
+     * Queues LRU_SCRIPT on the store's transaction: applies the touches and
+     * evicts the least recently hit entries once the cache name holds more
+     * than its max-entries in Redis.
+     */
+    @SuppressWarnings("unchecked")
+    private void updateLru(RedisOperations<String, Object> ops, String cacheName, String indexKey, String lruKey,
+            Map<String, Long> touches) {
+        RedisSerializer<Object> memberSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisSerializer<String> text = RedisSerializer.string();
+
+        List<String> keys = new ArrayList<>(2 + touches.size() * 2);
+        List<byte[]> args = new ArrayList<>(3 + touches.size() * 2);
+        keys.add(lruKey);
+        keys.add(indexKey);
+        args.add(text.serialize(String.valueOf(perCache(maxEntriesByCache, cacheName, maxEntries))));
+        args.add(text.serialize(INVALIDATION_CHANNEL));
+        args.add(text.serialize(TRIM_SENDER + "|entry|"));
+        touches.forEach((key, time) -> {
+            keys.add(CACHE_LRU_PREFIX + cacheNameOf(key));
+            keys.add(key);
+            args.add(memberSerializer.serialize(key));
+            args.add(text.serialize(String.valueOf(time)));
+        });
+
+        ops.execute(LRU_SCRIPT, RedisSerializer.byteArray(), new GenericToStringSerializer<>(Long.class), keys,
+                args.toArray());
+    }
+
+    /**
+     * Remember a hit for the Redis LRU set without a round-trip of its own.
+     */
+    private void touch(String entryKey) {
+        pendingTouches.put(entryKey, System.currentTimeMillis());
+    }
+
+    private Map<String, Long> drainTouches() {
+        Map<String, Long> drained = new HashMap<>();
+        for (String key : pendingTouches.keySet()) {
+            Long time = pendingTouches.remove(key);
+            if (time != null) {
+                drained.put(key, time);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Remove a stale entry from its LSH buckets. The buckets are recomputed
+     * from the keywords encoded in the entry key.
      */
-    private void cleanupStaleInvertedIndexEntriesAsync(String cacheName, String entryKey) {
-        log.debug("Cleaning up stale entry {} from inverted index for cache '{}'", entryKey, cacheName);
-        // The entry key format is: semantic:entry:{cacheName}:{keyword1}_{keyword2}_...
-        String prefix = CACHE_ENTRY_PREFIX + cacheName + ":";
+    private void cleanupStaleBucketEntries(String scope, String entryKey) {
+        log.debug("Cleaning up stale entry {} from LSH buckets for cache '{}'", entryKey, scope);
+        // The entry key format is: semantic:entry:{scope}:{keyword1}_{keyword2}_...
+        String prefix = CACHE_ENTRY_PREFIX + scope + ":";
         if (entryKey.startsWith(prefix)) {
-            String keywordsPart = entryKey.substring(prefix.length());
-            String[] keywordsArray = keywordsPart.split("_");
-            for (String kw : keywordsArray) {
-                String invertedKey = CACHE_INVERTED_INDEX_PREFIX + cacheName + ":" + kw;
-                redisTemplate.opsForSet().remove(invertedKey, entryKey);
+            Set<String> keywords = Set.of(entryKey.substring(prefix.length()).split("_"));
+            for (String bucketKey : bucketKeys(scope, minHashLsh.signature(keywords))) {
+                redisTemplate.opsForSet().remove(bucketKey, entryKey);
+            }
+        }
+    }
+
+    /**
+     * Best match among L1 entries sharing a bucket with the query.
+     */
+    private SemanticCacheResult lookupLocal(String cacheName, List<String> bucketKeys,
+            KeywordDictionary dictionary, KeywordDictionary.KeywordIds queryIds) {
+        Cache<String, SemanticCacheEntry> l1Cache = l1(cacheName);
+        SemanticCacheEntry bestMatch = null;
+        String bestKey = null;
+        double bestSimilarity = 0.0;
+        Set<String> seen = new HashSet<>();
+
+        for (String bucketKey : bucketKeys) {
+            Set<String> entryKeys = localBuckets.get(bucketKey);
+            if (entryKeys == null) {
+                continue;
+            }
+            for (String entryKey : entryKeys) {
+                if (!seen.add(entryKey)) {
+                    continue;
+                }
+                SemanticCacheEntry entry = l1Cache.getIfPresent(entryKey);
+                if (entry == null) {
+                    continue;
+                }
+                double similarity = KeywordDictionary.jaccard(queryIds, keywordIds(entry, dictionary));
+                if (similarity > bestSimilarity) {
+                    bestSimilarity = similarity;
+                    bestMatch = entry;
+                    bestKey = entryKey;
+                }
+            }
+        }
+
+        if (bestMatch != null && bestSimilarity >= similarityThreshold) {
+            touch(bestKey);
+            return SemanticCacheResult.hit(bestMatch.getCachedValue(), bestSimilarity,
+                    bestMatch.getOriginalQuestion(), bestMatch.getSourceVersions());
+        }
+        return SemanticCacheResult.miss();
+    }
+
+    /**
+     * Best match among L1 entries nearest to the query embedding.
+     */
+    private SemanticCacheResult lookupLocalByEmbedding(String cacheName, String scope, float[] queryEmbedding,
+            double threshold) {
+        for (EmbeddingCacheIndex.Match match : embeddingIndex.search(scope, queryEmbedding, 5)) {
+            if (match.similarity() < threshold) {
+                break;
+            }
+            SemanticCacheEntry entry = l1(cacheName).getIfPresent(match.entryKey());
+            if (entry != null) {
+                touch(match.entryKey());
+                return SemanticCacheResult.hit(entry.getCachedValue(), match.similarity(),
+                        entry.getOriginalQuestion(), entry.getSourceVersions());
+            }
+        }
+        return SemanticCacheResult.miss();
+    }
+
+    private void cacheLocally(String scope, String entryKey, SemanticCacheEntry entry) {
+        keywordIds(entry, keywordDictionary);
+        l1(cacheNameOf(entryKey)).put(entryKey, entry);
+        indexLocally(scope, entryKey, entry);
+        if (embeddingMode()) {
+            embeddingIndex.add(scope, entryKey, entry.getQuestionEmbedding());
+        }
+        compactDictionaryIfNeeded();
+    }
+
+    /**
+     * The entry's keyword IDs in the given dictionary, interned on first use.
+     */
+    private int[] keywordIds(SemanticCacheEntry entry, KeywordDictionary dictionary) {
+        KeywordDictionary.Interned interned = entry.getKeywordIds();
+        if (interned == null || interned.dictionary() != dictionary) {
+            interned = new KeywordDictionary.Interned(dictionary, dictionary.intern(entry.getNormalizedKeywords()));
+            entry.setKeywordIds(interned);
+        }
+        return interned.sortedIds();
+    }
+
+    /**
+     * Interning never forgets a word, and Redis candidates that lose the
+     * comparison are interned too. Once the dictionary outgrows what L1 can
+     * use, re-intern the live L1 entries into a fresh one and swap it in.
+     */
+    private void compactDictionaryIfNeeded() {
+        long l1Entries = l1Caches.values().stream().mapToLong(Cache::estimatedSize).sum();
+        long limit = Math.max(Math.max(dictionaryMinSize, 2L * lastRebuiltDictionarySize),
+                l1Entries * DICTIONARY_KEYWORDS_PER_ENTRY);
+        if (keywordDictionary.size() <= limit || !rebuildingDictionary.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = keywordDictionary.size();
+            KeywordDictionary rebuilt = new KeywordDictionary();
+            for (Cache<String, SemanticCacheEntry> l1Cache : l1Caches.values()) {
+                l1Cache.asMap().values().forEach(entry -> keywordIds(entry, rebuilt));
+            }
+            keywordDictionary = rebuilt;
+            lastRebuiltDictionarySize = rebuilt.size();
+            log.debug("Rebuilt keyword dictionary from {} L1 entries: {} -> {} keywords",
+                    l1Entries, before, rebuilt.size());
+        } finally {
+            rebuildingDictionary.set(false);
+        }
+    }
+
+    private void indexLocally(String scope, String entryKey, SemanticCacheEntry entry) {
+        for (String bucketKey : bucketKeys(scope, minHashLsh.signature(entry.getNormalizedKeywords()))) {
+            localBuckets.computeIfAbsent(bucketKey, k -> ConcurrentHashMap.newKeySet()).add(entryKey);
+        }
+    }
+
+    private void unindexLocal(String entryKey) {
+        if (embeddingMode()) {
+            String rest = entryKey.substring(CACHE_ENTRY_PREFIX.length());
+            int separator = rest.lastIndexOf(':');
+            if (separator > 0) {
+                embeddingIndex.remove(rest.substring(0, separator), entryKey);
             }
         }
+        for (String bucketKey : bucketKeysOf(entryKey)) {
+            localBuckets.computeIfPresent(bucketKey, (k, entryKeys) -> {
+                entryKeys.remove(entryKey);
+                return entryKeys.isEmpty() ? null : entryKeys;
+            });
+        }
+    }
+
+    private void invalidateLocalCache(String cacheName) {
+        l1(cacheName).invalidateAll();
+    }
+
+    /**
+     * Buckets of an entry, recomputed from the scope and keywords encoded in
+     * its key: semantic:entry:{scope}:{keyword1}_{keyword2}_...
+     */
+    private List<String> bucketKeysOf(String entryKey) {
+        String rest = entryKey.substring(CACHE_ENTRY_PREFIX.length());
+        int separator = rest.lastIndexOf(':');
+        if (separator < 0) {
+            return List.of();
+        }
+        Set<String> keywords = Set.of(rest.substring(separator + 1).split("_"));
+        return bucketKeys(rest.substring(0, separator), minHashLsh.signature(keywords));
+    }
+
+    /**
+     * The cache name is the first segment of the scope in an entry key.
+     */
+    private static String cacheNameOf(String entryKey) {
+        String rest = entryKey.substring(CACHE_ENTRY_PREFIX.length());
+        int separator = rest.indexOf(':');
+        return separator < 0 ? rest : rest.substring(0, separator);
+    }
+
+    /**
+     * Invalidation messages from other instances: "{origin}|entry|{entryKey}"
+     * or "{origin}|clear|{cacheName}".
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (payload != null) {
+            handleInvalidation(payload.toString());
+        }
+    }
+
+    void handleInvalidation(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(instanceId)) {
+            return;
+        }
+        if ("entry".equals(parts[1])) {
+            l1(cacheNameOf(parts[2])).invalidate(parts[2]);
+        } else if ("clear".equals(parts[1])) {
+            invalidateLocalCache(parts[2]);
+        }
+    }
+
+    private List<String> bucketKeys(String scope, int[] signature) {
+        List<String> keys = new ArrayList<>(minHashLsh.bands());
+        for (String bucketId : minHashLsh.bucketIds(signature)) {
+            keys.add(CACHE_LSH_PREFIX + scope + ":" + bucketId);
+        }
+        return keys;
     }
 
     /**
@@ -368,10 +972,22 @@ public class SemanticCacheService {
         try {
             Long redisSize = redisTemplate.opsForSet().size(indexKey);
             stats.put("redisEntryCount", redisSize != null ? redisSize : 0);
+            Cache<String, SemanticCacheEntry> l1Cache = l1(cacheName);
             stats.put("l1CacheSize", l1Cache.estimatedSize());
+            stats.put("lruEntryCount", redisTemplate.opsForZSet().zCard(CACHE_LRU_PREFIX + cacheName));
+            stats.put("maxEntries", perCache(maxEntriesByCache, cacheName, maxEntries));
+            stats.put("ttlMinutes", ttlMinutes(cacheName));
+            stats.put("localBucketCount", localBuckets.size());
+            stats.put("internedKeywords", keywordDictionary.size());
             stats.put("l1HitRate", l1Cache.stats().hitRate());
             stats.put("enabled", cacheEnabled);
-            stats.put("similarityThreshold", similarityThreshold);
+            stats.put("mode", embeddingMode() ? "embedding" : "jaccard");
+            if (embeddingMode()) {
+                stats.put("embeddingGraphs", embeddingIndex.graphCount());
+            }
+            stats.put("similarityThreshold", threshold(cacheName));
+            stats.put("lshBands", lshBands);
+            stats.put("lshRows", lshRows);
         } catch (Exception e) {
             stats.put("error", e.getMessage());
         }
@@ -1,16 +1,24 @@
 package com.memory.context.engine.domain.memory.api;
 
+import com.memory.context.engine.domain.memory.api.dto.BulkCreateMemoryRequest;
+import com.memory.context.engine.domain.memory.api.dto.BulkCreateMemoryResponse;
 import com.memory.context.engine.domain.memory.api.dto.CreateMemoryRequest;
 import com.memory.context.engine.domain.memory.api.dto.MemoryResponse;
+import com.memory.context.engine.domain.memory.api.dto.MemorySliceResponse;
 import com.memory.context.engine.domain.memory.api.dto.UpdateMemoryRequest;
 import com.memory.context.engine.domain.memory.service.MemoryService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
 
@@ -19,9 +27,12 @@ import java.util.List;
 public class MemoryController {
 
     private final MemoryService memoryService;
+    private final long exportTimeoutMs;
 
-    public MemoryController(MemoryService memoryService) {
+    public MemoryController(MemoryService memoryService,
+            @Value("${memory.export.timeout-ms:600000}") long exportTimeoutMs) {
         this.memoryService = memoryService;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
 
     @PostMapping
@@ -32,12 +43,53 @@ public class MemoryController {
                 .body(memoryService.createMemory(request));
     }
 
+    /**
+     * Bulk import (up to 5000 per request). Context metadata for items sent
+     * without one is extracted asynchronously after the insert.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateMemoryResponse> createBulk(
+            @Valid @RequestBody BulkCreateMemoryRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(memoryService.createMemories(request));
+    }
+
     @GetMapping
     public ResponseEntity<List<MemoryResponse>> getMemories(
             @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(memoryService.getActiveMemories(pageable));
     }
 
+    /**
+     * Cursor-paginated listing, newest first. Omit cursor for the first slice,
+     * then pass the previous response's nextCursor.
+     */
+    @GetMapping("/scroll")
+    public MemorySliceResponse scroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return memoryService.getActiveMemoriesSlice(cursor, size);
+    }
+
+    /**
+     * Streams every memory of the caller as NDJSON. The user is resolved
+     * here, since the body is written on an async thread. Large dumps get
+     * their own timeout (memory.export.timeout-ms) instead of the global
+     * async request timeout that also bounds /ask.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> export(HttpServletResponse response) {
+        String userId = memoryService.currentUser();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"memories.ndjson\"");
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            memoryService.exportMemories(userId, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
     @GetMapping("/{id}")
     public MemoryResponse get(@PathVariable Long id) {
         return memoryService.getMemory(id);
@@ -0,0 +1,19 @@
+package com.memory.context.engine.domain.memory.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@lombok.Builder
+public class BulkCreateMemoryRequest {
+
+    @NotEmpty(message = "memories is required")
+    @Size(max = 5000, message = "at most 5000 memories per request")
+    private List<@Valid CreateMemoryRequest> memories;
+}
@@ -0,0 +1,21 @@
+package com.memory.context.engine.domain.memory.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a bulk insert. ids are in request order; keyword extraction for
+ * memories sent without a context is still running when this is returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateMemoryResponse {
+    private int created;
+    private List<Long> ids;
+}
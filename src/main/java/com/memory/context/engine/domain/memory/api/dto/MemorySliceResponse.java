@@ -0,0 +1,22 @@
+package com.memory.context.engine.domain.memory.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a cursor-paginated memory listing. Pass nextCursor back to
+ * get the following slice; it is null on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemorySliceResponse {
+    private List<MemoryResponse> items;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.memory.context.engine.domain.memory.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published once all of a user's memories have been deleted (account
+ * removal). In-process per-user indexes drop the user's data on it; it is not
+ * forwarded to Kafka.
+ */
+@Getter
+@AllArgsConstructor
+public class UserDataDeletedEvent {
+    private final String userId;
+}
@@ -0,0 +1,117 @@
+package com.memory.context.engine.domain.memory.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.memory.context.engine.domain.memory.entity.Memory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for memories.
+ *
+ * The entity uses IDENTITY ids, which makes Hibernate insert row by row. Here
+ * ids are reserved up front from the column's sequence in one round trip, so
+ * the INSERTs carry explicit ids and go out as JDBC batches (rewritten into
+ * multi-row INSERTs by the driver's reWriteBatchedInserts).
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class MemoryBulkRepository {
+
+    // Plain mapper: the primary bean adds polymorphic type info to every value
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${memory.bulk.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Inserts all memories in one transaction and fills in their id,
+     * createdAt, updatedAt and version.
+     */
+    @Transactional
+    public void insertAll(List<Memory> memories) {
+        if (memories.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('memories', 'id')) FROM generate_series(1, ?)",
+                Long.class, memories.size());
+
+        Instant now = Instant.now();
+        Timestamp timestamp = Timestamp.from(now);
+        List<Object[]> rows = new ArrayList<>(memories.size());
+        for (int i = 0; i < memories.size(); i++) {
+            Memory memory = memories.get(i);
+            memory.setId(ids.get(i));
+            memory.setCreatedAt(now);
+            memory.setUpdatedAt(now);
+            memory.setVersion(0L);
+            rows.add(new Object[] {
+                    memory.getId(),
+                    memory.getUserId(),
+                    memory.getTitle(),
+                    memory.getContent(),
+                    toJson(memory.getContext()),
+                    memory.getImportanceScore(),
+                    memory.isArchived(),
+                    timestamp,
+                    timestamp,
+                    memory.getVersion() });
+        }
+
+        int[] types = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                Types.INTEGER, Types.BOOLEAN, Types.TIMESTAMP_WITH_TIMEZONE, Types.TIMESTAMP_WITH_TIMEZONE,
+                Types.BIGINT };
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO memories (id, user_id, title, content, context, importance_score,
+                                          archived, created_at, updated_at, version)
+                    VALUES (?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?)
+                    """, rows.subList(from, Math.min(from + batchSize, rows.size())), types);
+        }
+        log.debug("Batch-inserted {} memories", memories.size());
+    }
+
+    /**
+     * Sets context for each memory id in contexts, in JDBC batches. Rows that
+     * gained a context in the meantime are left alone; the version bump makes
+     * a concurrent JPA update fail instead of overwriting the new context.
+     */
+    @Transactional
+    public void updateContexts(Map<Long, Map<String, Object>> contexts) {
+        List<Object[]> rows = new ArrayList<>(contexts.size());
+        contexts.forEach((id, context) -> rows.add(new Object[] { toJson(context), id }));
+
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE memories SET context = ?::jsonb, version = version + 1 WHERE id = ? AND context IS NULL",
+                    rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
+
+    private static String toJson(Map<String, Object> context) {
+        if (context == null) {
+            return null;
+        }
+        try {
+            return JSON.writeValueAsString(context);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Memory context is not serializable to JSON", e);
+        }
+    }
+}
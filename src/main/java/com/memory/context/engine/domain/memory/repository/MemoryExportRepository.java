@@ -0,0 +1,50 @@
+package com.memory.context.engine.domain.memory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Forward-only scans over a user's memories for export.
+ *
+ * The Postgres driver only uses a server-side cursor when autocommit is off
+ * and a fetch size is set; otherwise it buffers the whole result. The
+ * read-only transaction provides the former, so at most fetchSize rows are
+ * held in the JVM at a time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemoryExportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${memory.export.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Hands every memory of the user, archived ones included, to handler in id
+     * order. Columns: id, title, content, context (jsonb text),
+     * importance_score, archived, created_at, updated_at.
+     */
+    @Transactional(readOnly = true)
+    public void streamByUserId(String userId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT id, title, content, context::text AS context, importance_score,
+                           archived, created_at, updated_at
+                    FROM memories
+                    WHERE user_id = ?
+                    ORDER BY id
+                    """, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, userId);
+            return statement;
+        }, handler);
+    }
+}
@@ -1,23 +1,44 @@
 package com.memory.context.engine.domain.memory.repository;
 
 import com.memory.context.engine.domain.memory.entity.Memory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import java.util.List;
+
+import java.time.Instant;
 
 public interface MemoryRepository extends JpaRepository<Memory, Long> {
 
-    Page<Memory> findByUserIdAndArchivedFalse(
+    // Slice: the listing never reads a total, so no COUNT(*) is issued
+    Slice<Memory> findByUserIdAndArchivedFalse(
             String userId,
             Pageable pageable);
 
-    List<Memory> findAllByUserId(String userId);
+    /**
+     * First keyset slice of active memories, newest first.
+     */
+    Slice<Memory> findByUserIdAndArchivedFalseOrderByCreatedAtDescIdDesc(
+            String userId,
+            Pageable pageable);
 
-    @Modifying
-    @Query("DELETE FROM Memory m WHERE m.userId = :userId")
-    void deleteByUserId(@Param("userId") String userId);
+    /**
+     * Keyset slice of active memories strictly after (createdAt, id) in
+     * (created_at DESC, id DESC) order. Served by the partial index
+     * idx_memories_user_active_created; pass an unsorted Pageable.
+     */
+    @Query("""
+            SELECT m FROM Memory m
+            WHERE m.userId = :userId
+              AND m.archived = false
+              AND m.createdAt <= :createdAt
+              AND (m.createdAt < :createdAt OR m.id < :id)
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    Slice<Memory> findActiveBefore(
+            @Param("userId") String userId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
 }
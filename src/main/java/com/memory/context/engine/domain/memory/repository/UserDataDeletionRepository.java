@@ -0,0 +1,74 @@
+package com.memory.context.engine.domain.memory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Set-based, chunked deletes for account removal.
+ *
+ * Each method deletes one bounded chunk in its own transaction, so row locks
+ * are held for one chunk at a time and a failure only rolls back that chunk.
+ * Callers loop until a method reports nothing left.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserDataDeletionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deletes the user's chunkSize lowest-id memories and every relationship
+     * touching them. Only the rows locked by the SELECT are deleted: they are
+     * bound back as one bigint[] parameter, so a row committed concurrently
+     * below the chunk's highest id is left for the next chunk.
+     *
+     * @return ids of the deleted memories, empty once the user has none left
+     */
+    @Transactional
+    public List<Long> deleteMemoryChunk(String userId, int chunkSize) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM memories WHERE user_id = ? ORDER BY id LIMIT ? FOR UPDATE",
+                Long.class, userId, chunkSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        Long[] chunk = ids.toArray(Long[]::new);
+        deleteByIds("""
+                DELETE FROM memory_relationships
+                WHERE source_memory_id = ANY(?) OR target_memory_id = ANY(?)
+                """, chunk, 2);
+        deleteByIds("DELETE FROM memories WHERE id = ANY(?)", chunk, 1);
+        return ids;
+    }
+
+    private void deleteByIds(String sql, Long[] ids, int parameterCount) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            Array array = connection.createArrayOf("bigint", ids);
+            for (int i = 1; i <= parameterCount; i++) {
+                ps.setArray(i, array);
+            }
+            return ps;
+        });
+    }
+
+    /**
+     * Deletes up to chunkSize of the user's audit events.
+     *
+     * @return number of rows deleted, 0 once none are left
+     */
+    @Transactional
+    public int deleteAuditChunk(String userId, int chunkSize) {
+        return jdbcTemplate.update("""
+                DELETE FROM audit_events
+                WHERE id IN (SELECT id FROM audit_events WHERE user_id = ? LIMIT ?)
+                """, userId, chunkSize);
+    }
+}
@@ -0,0 +1,39 @@
+package com.memory.context.engine.domain.memory.service;
+
+import com.memory.context.engine.domain.common.exception.InvalidCursorException;
+import com.memory.context.engine.domain.memory.entity.Memory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (created_at DESC, id DESC) memory listing: the last
+ * row of the previous slice. Encoded as an opaque URL-safe token.
+ */
+public record MemoryCursor(Instant createdAt, long id) {
+
+    public static MemoryCursor of(Memory memory) {
+        return new MemoryCursor(memory.getCreatedAt(), memory.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new MemoryCursor(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
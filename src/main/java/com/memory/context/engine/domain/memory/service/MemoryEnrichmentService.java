@@ -0,0 +1,75 @@
+package com.memory.context.engine.domain.memory.service;
+
+import com.memory.context.engine.domain.intelligence.KeywordExtractionService;
+import com.memory.context.engine.domain.memory.entity.Memory;
+import com.memory.context.engine.domain.memory.event.MemoryCreatedEvent;
+import com.memory.context.engine.domain.memory.repository.MemoryBulkRepository;
+import com.memory.context.engine.infrastructure.cache.UserCacheRegions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background stage of bulk ingestion: extracts context metadata for memories
+ * that were inserted without one, then announces the memories downstream.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemoryEnrichmentService {
+
+    private final KeywordExtractionService keywordExtractionService;
+    private final MemoryBulkRepository memoryBulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCacheRegions userCacheRegions;
+
+    /**
+     * Runs after the bulk insert has committed. RAKE extraction is CPU-bound,
+     * so it is spread over the common fork-join pool; the results are written
+     * back in JDBC batches.
+     *
+     * MemoryCreatedEvents are published only once the contexts are stored, so
+     * embedding, search indexes and the audit trail see the enriched rows.
+     */
+    @Async
+    public void enrichAndPublish(List<Memory> memories) {
+        long startTime = System.currentTimeMillis();
+
+        Map<Long, Map<String, Object>> contexts = new ConcurrentHashMap<>();
+        memories.parallelStream()
+                .filter(memory -> memory.getContext() == null || memory.getContext().isEmpty())
+                .forEach(memory -> {
+                    Map<String, Object> context = keywordExtractionService.extractContextMetadata(
+                            memory.getTitle(),
+                            memory.getContent());
+                    memory.setContext(context);
+                    contexts.put(memory.getId(), context);
+                });
+
+        if (!contexts.isEmpty()) {
+            try {
+                memoryBulkRepository.updateContexts(contexts);
+                // Cached pages were filled while the contexts were still empty
+                userCacheRegions.evictUser(memories.get(0).getUserId());
+            } catch (Exception e) {
+                log.error("Failed to store extracted context for {} memories: {}", contexts.size(), e.getMessage());
+            }
+        }
+        log.info("Enriched {} of {} bulk-created memories in {}ms",
+                contexts.size(), memories.size(), System.currentTimeMillis() - startTime);
+
+        for (Memory memory : memories) {
+            eventPublisher.publishEvent(new MemoryCreatedEvent(
+                    memory.getId(),
+                    memory.getUserId(),
+                    memory.getTitle(),
+                    memory.getImportanceScore()));
+        }
+    }
+}
@@ -1,32 +1,50 @@
 package com.memory.context.engine.domain.memory.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.memory.context.engine.domain.common.exception.AccessDeniedException;
 import com.memory.context.engine.domain.common.exception.InvalidMemoryStateException;
 import com.memory.context.engine.domain.common.exception.ResourceNotFoundException;
 import com.memory.context.engine.domain.intelligence.KeywordExtractionService;
+import com.memory.context.engine.domain.memory.api.dto.BulkCreateMemoryRequest;
+import com.memory.context.engine.domain.memory.api.dto.BulkCreateMemoryResponse;
 import com.memory.context.engine.domain.memory.api.dto.CreateMemoryRequest;
 import com.memory.context.engine.domain.memory.api.dto.MemoryResponse;
+import com.memory.context.engine.domain.memory.api.dto.MemorySliceResponse;
 import com.memory.context.engine.domain.memory.api.dto.UpdateMemoryRequest;
 import com.memory.context.engine.domain.memory.entity.Memory;
 import com.memory.context.engine.domain.memory.event.MemoryArchivedEvent;
 import com.memory.context.engine.domain.memory.event.MemoryCreatedEvent;
 import com.memory.context.engine.domain.memory.event.MemoryUpdatedEvent;
+import com.memory.context.engine.domain.memory.event.UserDataDeletedEvent;
 import com.memory.context.engine.domain.memory.mapper.MemoryMapper;
+import com.memory.context.engine.domain.memory.repository.MemoryBulkRepository;
+import com.memory.context.engine.domain.memory.repository.MemoryExportRepository;
 import com.memory.context.engine.domain.memory.repository.MemoryRepository;
-import com.memory.context.engine.domain.relationship.repository.MemoryRelationshipRepository;
-import com.memory.context.engine.domain.audit.repository.AuditRepository;
+import com.memory.context.engine.domain.memory.repository.UserDataDeletionRepository;
 import com.memory.context.engine.infrastructure.cache.CacheNames;
+import com.memory.context.engine.infrastructure.cache.UserCacheRegions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,21 +61,30 @@ import java.util.Set;
 public class MemoryService {
 
     private final MemoryRepository memoryRepository;
-    private final MemoryRelationshipRepository relationshipRepository;
-    private final AuditRepository auditRepository;
+    private final MemoryBulkRepository memoryBulkRepository;
+    private final MemoryExportRepository memoryExportRepository;
+    private final MemoryEnrichmentService memoryEnrichmentService;
+    private final UserDataDeletionRepository userDataDeletionRepository;
+    private final UserCacheRegions userCacheRegions;
     private final MemoryMapper memoryMapper;
     private final ApplicationEventPublisher eventPublisher;
     private final KeywordExtractionService keywordExtractionService;
 
+    private static final int MAX_SLICE_SIZE = 100;
+
+    @Value("${memory.cleanup.chunk-size:1000}")
+    private int cleanupChunkSize;
+
+    // The export writes to the servlet stream, which the container closes
+    private static final JsonFactory NDJSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
     // ==================================================
     // CREATE
     // ==================================================
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheNames.MEMORY_LISTS, allEntries = true),
-            @CacheEvict(value = "search-results", allEntries = true)
-    })
     public MemoryResponse createMemory(CreateMemoryRequest request) {
         String userId = currentUser();
         log.info("Creating memory for user: {}, title: {}", userId, request.getTitle());
@@ -91,9 +118,42 @@ public class MemoryService {
                 saved.getTitle(),
                 saved.getImportanceScore()));
 
+        userCacheRegions.evictUser(userId);
         return memoryMapper.toResponse(saved);
     }
 
+    /**
+     * Inserts a batch of memories for import jobs. Rows go in with JDBC
+     * batching in one transaction (committed by MemoryBulkRepository before
+     * this returns), the user's cache region is invalidated once for the whole
+     * batch, and keyword extraction plus the created events run in the
+     * background.
+     */
+    public BulkCreateMemoryResponse createMemories(BulkCreateMemoryRequest request) {
+        String userId = currentUser();
+        log.info("Bulk creating {} memories for user: {}", request.getMemories().size(), userId);
+
+        List<Memory> memories = request.getMemories().stream()
+                .map(item -> Memory.builder()
+                        .userId(userId)
+                        .title(item.getTitle())
+                        .content(item.getContent())
+                        .importanceScore(item.getImportanceScore())
+                        .context(item.getContext())
+                        .archived(false)
+                        .build())
+                .toList();
+
+        memoryBulkRepository.insertAll(memories);
+        userCacheRegions.evictUser(userId);
+        memoryEnrichmentService.enrichAndPublish(memories);
+
+        return BulkCreateMemoryResponse.builder()
+                .created(memories.size())
+                .ids(memories.stream().map(Memory::getId).toList())
+                .build();
+    }
+
     // ==================================================
     // READ
     // ==================================================
@@ -107,7 +167,7 @@ public class MemoryService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheNames.MEMORY_LISTS, key = "'user:' + #root.target.currentUser() + ':page:' + #pageable.pageNumber")
+    @Cacheable(value = CacheNames.MEMORY_LISTS, key = "@userCacheRegions.currentScope() + ':page:' + #pageable.pageNumber")
     public List<MemoryResponse> getActiveMemories(Pageable pageable) {
         String userId = currentUser();
         log.debug("Fetching active memories for user: {}, page: {}", userId, pageable.getPageNumber());
@@ -117,13 +177,104 @@ public class MemoryService {
                 .map(memoryMapper::toResponse).getContent();
     }
 
+    /**
+     * Keyset (cursor) pagination over the active memories, newest first.
+     * Cost does not grow with depth: no OFFSET and no COUNT(*).
+     */
+    @Transactional(readOnly = true)
+    public MemorySliceResponse getActiveMemoriesSlice(String cursor, int size) {
+        String userId = currentUser();
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, MAX_SLICE_SIZE)));
+        log.debug("Fetching active memory slice for user: {}, cursor: {}", userId, cursor);
+
+        Slice<Memory> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = memoryRepository.findByUserIdAndArchivedFalseOrderByCreatedAtDescIdDesc(userId, pageable);
+        } else {
+            MemoryCursor position = MemoryCursor.decode(cursor);
+            slice = memoryRepository.findActiveBefore(userId, position.createdAt(), position.id(), pageable);
+        }
+
+        List<Memory> memories = slice.getContent();
+        String nextCursor = slice.hasNext() && !memories.isEmpty()
+                ? MemoryCursor.of(memories.get(memories.size() - 1)).encode()
+                : null;
+
+        return MemorySliceResponse.builder()
+                .items(memories.stream().map(memoryMapper::toResponse).toList())
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Writes all of the user's memories, archived ones included, to out as
+     * NDJSON (one object per line, id order). Rows go straight from the JDBC
+     * cursor to the stream and no entities are built, so heap use does not
+     * depend on how many memories the user has.
+     *
+     * @return the number of memories written
+     */
+    public long exportMemories(String userId, OutputStream out) throws IOException {
+        log.info("Exporting memories for user: {}", userId);
+        long startTime = System.currentTimeMillis();
+        long[] count = { 0 };
+
+        try (JsonGenerator json = NDJSON.createGenerator(out)) {
+            json.setRootValueSeparator(new SerializedString("\n"));
+            try {
+                memoryExportRepository.streamByUserId(userId, rs -> {
+                    writeExportRow(json, rs);
+                    count[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                // Client went away mid-stream
+                throw e.getCause();
+            }
+            if (count[0] > 0) {
+                json.writeRaw('\n');
+            }
+        }
+
+        log.info("Exported {} memories for user: {} in {}ms", count[0], userId,
+                System.currentTimeMillis() - startTime);
+        return count[0];
+    }
+
+    private static void writeExportRow(JsonGenerator json, ResultSet rs) throws SQLException {
+        try {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeStringField("title", rs.getString("title"));
+            json.writeStringField("content", rs.getString("content"));
+            json.writeFieldName("context");
+            String context = rs.getString("context");
+            if (context == null) {
+                json.writeNull();
+            } else {
+                // Already JSON, as rendered by Postgres
+                json.writeRawValue(context);
+            }
+            json.writeNumberField("importanceScore", rs.getInt("importance_score"));
+            json.writeBooleanField("archived", rs.getBoolean("archived"));
+            writeInstant(json, "createdAt", rs.getTimestamp("created_at"));
+            writeInstant(json, "updatedAt", rs.getTimestamp("updated_at"));
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeInstant(JsonGenerator json, String field, Timestamp timestamp) throws IOException {
+        if (timestamp == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeStringField(field, timestamp.toInstant().toString());
+        }
+    }
+
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheNames.MEMORIES, key = "#id"),
-            @CacheEvict(value = CacheNames.MEMORY_LISTS, allEntries = true),
-            @CacheEvict(value = CacheNames.SEARCH, allEntries = true),
-            @CacheEvict(value = CacheNames.GRAPH, allEntries = true)
-    })
+    @CacheEvict(value = CacheNames.MEMORIES, key = "#id")
     public MemoryResponse updateMemory(Long id, UpdateMemoryRequest request) {
         String userId = currentUser();
         log.info("Updating memory id: {} for user: {}", id, userId);
@@ -159,6 +310,7 @@ public class MemoryService {
 
         // Publish domain event
         eventPublisher.publishEvent(new MemoryUpdatedEvent(id, userId, updatedFields));
+        userCacheRegions.evictUser(userId);
 
         return memoryMapper.toResponse(saved);
     }
@@ -168,12 +320,7 @@ public class MemoryService {
     // ==================================================
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheNames.MEMORIES, key = "#id"),
-            @CacheEvict(value = CacheNames.MEMORY_LISTS, allEntries = true),
-            @CacheEvict(value = CacheNames.SEARCH, allEntries = true),
-            @CacheEvict(value = CacheNames.GRAPH, allEntries = true)
-    })
+    @CacheEvict(value = CacheNames.MEMORIES, key = "#id")
     public void archiveMemory(Long id) {
         String userId = currentUser();
         log.info("Archiving memory id: {} for user: {}", id, userId);
@@ -190,6 +337,7 @@ public class MemoryService {
 
         // Publish domain event
         eventPublisher.publishEvent(new MemoryArchivedEvent(id, userId));
+        userCacheRegions.evictUser(userId);
     }
 
     private Memory loadAndAuthorize(Long memoryId) {
@@ -217,37 +365,37 @@ public class MemoryService {
     }
 
     /**
-     * Cleans up all user-related data (memories, relationships, audit logs) and
-     * evicts relevant caches.
+     * Deletes all user-related data (memories, relationships, audit logs) in
+     * bounded chunks, each committed on its own, and evicts only this user's
+     * cache entries as it goes. Safe to re-run if interrupted.
      */
-    @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheNames.MEMORIES, allEntries = true),
-            @CacheEvict(value = CacheNames.MEMORY_LISTS, allEntries = true),
-            @CacheEvict(value = CacheNames.SEARCH, allEntries = true),
-            @CacheEvict(value = CacheNames.GRAPH, allEntries = true)
-    })
     public void cleanupUserData(String userId) {
         log.info("Cleaning up data for user: {}", userId);
+        long startTime = System.currentTimeMillis();
+
+        // 1. Memories with their relationships, lowest ids first
+        long memories = 0;
+        List<Long> deletedIds;
+        while (!(deletedIds = userDataDeletionRepository.deleteMemoryChunk(userId, cleanupChunkSize)).isEmpty()) {
+            userCacheRegions.evictMemories(deletedIds);
+            memories += deletedIds.size();
+            log.debug("Deleted {} memories so far for user: {}", memories, userId);
+        }
 
-        // 1. Find all memories for this user to identify relationships
-        List<Memory> memories = memoryRepository.findAllByUserId(userId);
-        if (!memories.isEmpty()) {
-            List<Long> memoryIds = memories.stream()
-                    .map(Memory::getId)
-                    .collect(java.util.stream.Collectors.toList());
-            log.debug("Deleting relationships for {} memories", memoryIds.size());
-            relationshipRepository.deleteAllByMemoryIds(memoryIds);
+        // 2. Audit logs
+        long auditEvents = 0;
+        int deleted;
+        while ((deleted = userDataDeletionRepository.deleteAuditChunk(userId, cleanupChunkSize)) > 0) {
+            auditEvents += deleted;
         }
 
-        // 2. Clear memories
-        log.debug("Deleting memories for user: {}", userId);
-        memoryRepository.deleteByUserId(userId);
+        // 3. Cached lists, searches and graphs of this user only
+        userCacheRegions.evictUser(userId);
 
-        // 3. Clear audit logs
-        log.debug("Deleting audit logs for user: {}", userId);
-        auditRepository.deleteByUserId(userId);
+        // 4. In-process search indexes (HNSW, BM25) still hold the deleted memories
+        eventPublisher.publishEvent(new UserDataDeletedEvent(userId));
 
-        log.info("Successfully cleaned up all data for user: {}", userId);
+        log.info("Cleaned up {} memories and {} audit events for user: {} in {}ms",
+                memories, auditEvents, userId, System.currentTimeMillis() - startTime);
     }
-}
\ No newline at end of file
+}
@@ -8,9 +8,9 @@ import com.memory.context.engine.domain.relationship.api.dto.RelatedMemoryDto;
 import com.memory.context.engine.domain.relationship.entity.MemoryRelationship;
 import com.memory.context.engine.domain.relationship.repository.MemoryRelationshipRepository;
 import com.memory.context.engine.infrastructure.cache.CacheNames;
+import com.memory.context.engine.infrastructure.cache.UserCacheRegions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -32,9 +32,9 @@ public class GraphService {
 
     private final MemoryRepository memoryRepository;
     private final MemoryRelationshipRepository relationshipRepository;
+    private final UserCacheRegions userCacheRegions;
 
     @Transactional
-    @CacheEvict(value = CacheNames.GRAPH, allEntries = true)
     public MemoryRelationship createRelationship(CreateRelationshipRequest request) {
         String userId = getCurrentUser();
         Memory source = memoryRepository.findById(request.getSourceMemoryId())
@@ -55,11 +55,13 @@ public class GraphService {
                 .strength(request.getStrength())
                 .build();
 
-        return relationshipRepository.save(relationship);
+        MemoryRelationship saved = relationshipRepository.save(relationship);
+        userCacheRegions.evictUser(userId);
+        return saved;
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheNames.GRAPH, key = "'related:' + #memoryId")
+    @Cacheable(value = CacheNames.GRAPH, key = "@userCacheRegions.currentScope() + ':related:' + #memoryId")
     public List<RelatedMemoryDto> getRelatedMemories(Long memoryId) {
         log.debug("Getting related memories for: {}", memoryId);
 
@@ -93,7 +95,7 @@ public class GraphService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheNames.GRAPH, key = "'traversal:' + #memoryId + ':' + #depth")
+    @Cacheable(value = CacheNames.GRAPH, key = "@userCacheRegions.currentScope() + ':traversal:' + #memoryId + ':' + #depth")
     public Set<Long> traverseGraph(Long memoryId, int depth) {
         log.debug("Traversing graph from memory: {} with depth: {}", memoryId, depth);
 
@@ -119,10 +121,10 @@ public class GraphService {
     }
 
     @Transactional
-    @CacheEvict(value = CacheNames.GRAPH, allEntries = true)
     public void deleteRelationship(Long relationshipId) {
         log.info("Deleting relationship: {}", relationshipId);
         relationshipRepository.deleteById(relationshipId);
+        userCacheRegions.evictUser(getCurrentUser());
     }
 
     private String getCurrentUser() {
@@ -9,11 +9,10 @@ import com.memory.context.engine.domain.search.api.dto.SearchResult;
 import com.memory.context.engine.domain.search.event.EmbeddingGeneratedEvent;
 import com.memory.context.engine.domain.intelligence.GeminiService;
 import com.memory.context.engine.domain.search.service.SearchService;
-import com.memory.context.engine.infrastructure.cache.CacheNames;
+import com.memory.context.engine.infrastructure.cache.UserCacheRegions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +32,7 @@ public class IntelligentLinkingService {
     private final GeminiService geminiService;
     private final MemoryRepository memoryRepository;
     private final MemoryRelationshipRepository relationshipRepository;
+    private final UserCacheRegions userCacheRegions;
 
     @Value("${intelligent.linking.threshold:0.85}")
     private double similarityThreshold;
@@ -42,11 +42,16 @@ public class IntelligentLinkingService {
 
     @EventListener
     @Transactional
-    @CacheEvict(value = CacheNames.GRAPH, allEntries = true)
     public void onEmbeddingGenerated(EmbeddingGeneratedEvent event) {
         Long memoryId = event.getMemoryId();
         String userId = event.getUserId();
 
+        // Backfills re-embed memories that were already linked when created
+        if (event.isReembed()) {
+            log.debug("Memory {} was re-embedded, skipping intelligent linking", memoryId);
+            return;
+        }
+
         log.info("Intelligent linking triggered for memory: {} (User: {})", memoryId, userId);
 
         Memory sourceMemory = memoryRepository.findById(memoryId).orElse(null);
@@ -100,5 +105,8 @@ public class IntelligentLinkingService {
             }
         }
 
+        if (linksCreated > 0) {
+            userCacheRegions.evictUser(userId);
+        }
     }
 }
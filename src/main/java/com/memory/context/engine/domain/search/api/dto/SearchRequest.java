@@ -24,6 +24,14 @@ public class SearchRequest {
     @lombok.Builder.Default
     private int limit = 10;
 
-    @lombok.Builder.Default
-    private Double similarityThreshold = 0.7;
+    /**
+     * Minimum cosine similarity for vector hits; null applies no cut-off.
+     */
+    private Double similarityThreshold;
+
+    /**
+     * Search strategy name ("vector", "hnsw", "hybrid", "bm25"); null uses the default
+     * strategy.
+     */
+    private String strategy;
 }
@@ -0,0 +1,172 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decorator that coalesces concurrent single-text embed() calls into one
+ * delegate embedBatch() call.
+ *
+ * The first request opens a window; every request arriving within
+ * windowMillis (up to maxBatchSize) joins the same batch. Batches are
+ * dispatched on the supplied executor, so a slow provider call does not stop
+ * the next window from filling. Explicit embedBatch() calls bypass the queue.
+ *
+ * The executor must be dedicated to this provider: callers block in embed()
+ * until their batch is dispatched, so sharing a pool with callers can starve
+ * the dispatch task behind the very threads waiting for it. An ExecutorService
+ * is owned by this provider and shut down on close(). Callers also give up
+ * after waitTimeout rather than blocking forever.
+ */
+@Slf4j
+public class CoalescingEmbeddingProvider implements EmbeddingProvider, AutoCloseable {
+
+    private final EmbeddingProvider delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Executor executor;
+    private final long waitTimeoutNanos;
+    private final BlockingQueue<PendingRequest> queue = new LinkedBlockingQueue<>();
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    private record PendingRequest(String text, CompletableFuture<float[]> result) {
+    }
+
+    public CoalescingEmbeddingProvider(EmbeddingProvider delegate, long windowMillis, int maxBatchSize,
+            Executor executor, Duration waitTimeout) {
+        if (windowMillis <= 0 || maxBatchSize < 1 || waitTimeout.isNegative() || waitTimeout.isZero()) {
+            throw new IllegalArgumentException("windowMillis, maxBatchSize and waitTimeout must be positive");
+        }
+        this.delegate = delegate;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.collector = new Thread(this::collectLoop, "embedding-coalescer");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    @Override
+    public String vectorSpace() {
+        return delegate.vectorSpace();
+    }
+
+    @Override
+    public float[] embed(String text) {
+        if (!running) {
+            throw new IllegalStateException("Embedding provider is shut down");
+        }
+        CompletableFuture<float[]> result = new CompletableFuture<>();
+        queue.add(new PendingRequest(text, result));
+        try {
+            return result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re
+                    : new IllegalStateException("Embedding request failed", e.getCause());
+        } catch (TimeoutException e) {
+            result.completeExceptionally(e);
+            throw new IllegalStateException("Embedding request timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(waitTimeoutNanos) + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Embedding request interrupted", e);
+        }
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i += maxBatchSize) {
+            vectors.addAll(delegate.embedBatch(texts.subList(i, Math.min(texts.size(), i + maxBatchSize))));
+        }
+        return vectors;
+    }
+
+    private void collectLoop() {
+        while (running) {
+            try {
+                PendingRequest first = queue.take();
+                List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                try {
+                    executor.execute(() -> dispatch(batch));
+                } catch (RuntimeException e) {
+                    log.error("Embedding coalescer failed to dispatch batch", e);
+                    batch.forEach(request -> request.result().completeExceptionally(e));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void dispatch(List<PendingRequest> batch) {
+        try {
+            List<String> texts = new ArrayList<>(batch.size());
+            for (PendingRequest request : batch) {
+                texts.add(request.text());
+            }
+
+            List<float[]> vectors = delegate.embedBatch(texts);
+            log.debug("Coalesced {} embedding requests into one {} call", batch.size(), delegate.getName());
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(vectors.get(i));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(request -> request.result().completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        collector.interrupt();
+        IllegalStateException shutdown = new IllegalStateException("Embedding provider is shut down");
+        PendingRequest pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(shutdown);
+        }
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+}
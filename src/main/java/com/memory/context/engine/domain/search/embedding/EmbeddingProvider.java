@@ -0,0 +1,42 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import java.util.List;
+
+/**
+ * SPI for turning text into embedding vectors.
+ * Implementations must return vectors of {@link #dimension()} floats and be
+ * thread-safe.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Identifying name of the provider (e.g., "hashing", "remote").
+     */
+    String getName();
+
+    /**
+     * Length of every vector this provider returns.
+     */
+    int dimension();
+
+    /**
+     * Identifies the vector space this provider embeds into. Vectors from
+     * different spaces are not comparable; a change here makes
+     * EmbeddingService re-embed stored memories once on the next startup.
+     */
+    default String vectorSpace() {
+        return getName() + ":" + dimension();
+    }
+
+    /**
+     * Embeds a batch of texts; result i corresponds to texts[i].
+     */
+    List<float[]> embedBatch(List<String> texts);
+
+    /**
+     * Embeds a single text.
+     */
+    default float[] embed(String text) {
+        return embedBatch(List.of(text)).get(0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.memory.context.engine.domain.search.embedding;
+
+/**
+ * Deterministic "hashing trick" pseudo-embedding kernel.
+ *
+ * Each token of 3+ characters contributes a pseudo-random vector seeded by
+ * its hash; the sum is L2-normalized, so texts sharing words end up close in
+ * cosine space.
+ *
+ * Performance notes:
+ * - Tokenizing is a single pass over the chars: lowercasing, stripping
+ * punctuation and hashing (FNV-1a) happen inline, no regex or substrings.
+ * - Token vectors come from a counter-based PRNG (Murmur3 finalizer over
+ * seed + i * golden ratio), so every lane is independent and the inner loop
+ * is pure 32-bit int/float arithmetic that C2 can auto-vectorize.
+ * - The output buffer is the accumulator; embedInto() allocates nothing.
+ *
+ * Instances are stateless and thread-safe.
+ */
+public final class HashingEmbeddingKernel {
+
+    public static final int MIN_TOKEN_LENGTH = 3;
+
+    // Bump whenever the token-to-vector mapping changes
+    public static final int VERSION = 2;
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int GOLDEN_GAMMA = 0x9E3779B9;
+    private static final float UNIT_24 = 0x1.0p-24f;
+
+    private final int dimension;
+
+    public HashingEmbeddingKernel(int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be > 0");
+        }
+        this.dimension = dimension;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Embeds text into a newly allocated, normalized vector.
+     */
+    public float[] embed(CharSequence text) {
+        float[] out = new float[dimension];
+        embedInto(text, out);
+        return out;
+    }
+
+    /**
+     * Embeds text into the caller's buffer (overwritten) without allocating.
+     */
+    public void embedInto(CharSequence text, float[] out) {
+        if (out.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Invalid buffer dimension: expected " + dimension + ", got " + out.length);
+        }
+        java.util.Arrays.fill(out, 0f);
+
+        int hash = FNV_OFFSET;
+        int tokenLength = 0;
+        int n = text.length();
+
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                hash = (hash ^ c) * FNV_PRIME;
+                tokenLength++;
+            } else if (Character.isWhitespace(c)) {
+                if (tokenLength >= MIN_TOKEN_LENGTH) {
+                    accumulateToken(out, hash);
+                }
+                hash = FNV_OFFSET;
+                tokenLength = 0;
+            }
+            // Any other character is dropped and the token continues ("don't" ->
+            // "dont")
+        }
+
+        normalize(out);
+    }
+
+    /**
+     * Adds the token's pseudo-random vector, uniform in [-0.5, 0.5), to acc.
+     */
+    private static void accumulateToken(float[] acc, int seed) {
+        for (int i = 0; i < acc.length; i++) {
+            int z = seed + i * GOLDEN_GAMMA;
+            z = (z ^ (z >>> 16)) * 0x85EBCA6B;
+            z = (z ^ (z >>> 13)) * 0xC2B2AE35;
+            z ^= z >>> 16;
+            acc[i] += (z >>> 8) * UNIT_24 - 0.5f;
+        }
+    }
+
+    private static void normalize(float[] v) {
+        // Four independent partial sums break the add dependency chain
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < v.length; i += 4) {
+            s0 += v[i] * v[i];
+            s1 += v[i + 1] * v[i + 1];
+            s2 += v[i + 2] * v[i + 2];
+            s3 += v[i + 3] * v[i + 3];
+        }
+        for (; i < v.length; i++) {
+            s0 += v[i] * v[i];
+        }
+
+        float sum = (s0 + s1) + (s2 + s3);
+        if (sum <= 0f) {
+            return;
+        }
+
+        float inv = (float) (1.0 / Math.sqrt(sum));
+        for (int j = 0; j < v.length; j++) {
+            v[j] *= inv;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import java.util.List;
+
+/**
+ * Default local provider: deterministic pseudo-embeddings from
+ * {@link HashingEmbeddingKernel}. No network, no model weights.
+ */
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private final HashingEmbeddingKernel kernel;
+
+    public HashingEmbeddingProvider(int dimension) {
+        this.kernel = new HashingEmbeddingKernel(dimension);
+    }
+
+    @Override
+    public String getName() {
+        return "hashing";
+    }
+
+    @Override
+    public int dimension() {
+        return kernel.dimension();
+    }
+
+    @Override
+    public String vectorSpace() {
+        return "hashing:v" + HashingEmbeddingKernel.VERSION + ":" + dimension();
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return kernel.embed(text);
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        // CPU-bound and independent per text
+        return texts.size() == 1
+                ? List.of(kernel.embed(texts.get(0)))
+                : texts.parallelStream().map(kernel::embed).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provider backed by an HTTP embeddings endpoint speaking the OpenAI-style
+ * contract: POST {"model": ..., "input": [texts]} returns
+ * {"data": [{"index": i, "embedding": [...]}]}.
+ *
+ * Works with OpenAI, most self-hosted embedding servers, or a local stub.
+ */
+@Slf4j
+public class RemoteEmbeddingProvider implements EmbeddingProvider {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+    private final int dimension;
+    private final Duration timeout;
+
+    public RemoteEmbeddingProvider(String endpoint, String apiKey, String model, int dimension, Duration timeout) {
+        this.endpoint = URI.create(endpoint);
+        this.apiKey = apiKey;
+        this.model = model;
+        this.dimension = dimension;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "remote";
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public String vectorSpace() {
+        return "remote:" + model + ":" + dimension;
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("model", model, "input", texts));
+            HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (apiKey != null && !apiKey.isBlank()) {
+                request.header("Authorization", "Bearer " + apiKey);
+            }
+
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Embedding endpoint returned HTTP " + response.statusCode());
+            }
+
+            EmbeddingResponse parsed = objectMapper.readValue(response.body(), EmbeddingResponse.class);
+            return toVectors(parsed, texts.size());
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Embedding request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Embedding request interrupted", e);
+        }
+    }
+
+    private List<float[]> toVectors(EmbeddingResponse response, int expected) {
+        if (response.getData() == null || response.getData().size() != expected) {
+            throw new IllegalStateException("Embedding endpoint returned "
+                    + (response.getData() == null ? 0 : response.getData().size()) + " vectors for " + expected
+                    + " inputs");
+        }
+
+        float[][] ordered = new float[expected][];
+        for (EmbeddingData data : response.getData()) {
+            int index = data.getIndex();
+            if (index < 0 || index >= expected) {
+                throw new IllegalStateException("Embedding endpoint returned index " + index
+                        + " outside 0.." + (expected - 1));
+            }
+            if (ordered[index] != null) {
+                throw new IllegalStateException("Embedding endpoint returned index " + index + " twice");
+            }
+            if (data.getEmbedding() == null || data.getEmbedding().length != dimension) {
+                throw new IllegalStateException("Invalid embedding dimension from endpoint for index " + index
+                        + ", expected " + dimension);
+            }
+            ordered[index] = data.getEmbedding();
+        }
+
+        // With the count, range and duplicate checks above every slot is
+        // filled; kept as a guard against future changes to those checks
+        List<float[]> vectors = new ArrayList<>(expected);
+        for (int i = 0; i < expected; i++) {
+            if (ordered[i] == null) {
+                throw new IllegalStateException("Embedding endpoint response is missing index " + i);
+            }
+            vectors.add(ordered[i]);
+        }
+        return vectors;
+    }
+
+    // --- DTOs for the embeddings API ---
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class EmbeddingResponse {
+        private List<EmbeddingData> data;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class EmbeddingData {
+        private int index;
+        private float[] embedding;
+    }
+}
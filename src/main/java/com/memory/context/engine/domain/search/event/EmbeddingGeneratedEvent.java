@@ -5,10 +5,15 @@ import lombok.Getter;
 
 /**
  * Event published when a vector embedding has been generated for a memory.
+ * Carries the vector so in-process indexes can update without re-reading it.
+ * reembed marks a backfill of an existing memory: indexes refresh, but
+ * intelligent linking does not run again.
  */
 @Getter
 @AllArgsConstructor
 public class EmbeddingGeneratedEvent {
     private final Long memoryId;
     private final String userId;
+    private final float[] embedding;
+    private final boolean reembed;
 }
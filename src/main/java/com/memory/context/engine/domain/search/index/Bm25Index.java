@@ -0,0 +1,301 @@
+package com.memory.context.engine.domain.search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory BM25 inverted index over one user's memories (title + content),
+ * keyed by memory ID.
+ *
+ * Each term has a postings list of parallel primitive arrays (document
+ * ordinal, term frequency). Upserting a memory tombstones its previous
+ * document and appends a new one; the index is compacted once tombstones
+ * outnumber live documents. Searches run concurrently under a read lock,
+ * mutations take the write lock.
+ *
+ * Title terms count TITLE_WEIGHT times, like the A/B weights of the Postgres
+ * full-text query. Tokens are lowercased letter/digit runs; there is no
+ * stemming.
+ */
+public class Bm25Index {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "in",
+            "is", "it", "its", "of", "on", "or", "that", "the", "this", "to", "was", "were", "with");
+
+    /**
+     * A single scored hit.
+     */
+    public record Match(long memoryId, float score) {
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] freqs = new float[4];
+        int size;
+        int liveDocFreq;
+
+        void add(int doc, float freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> docByMemoryId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per document ordinal; docTerms keeps the distinct term IDs for df bookkeeping
+    private long[] memoryIds = new long[16];
+    private int[] docLengths = new int[16];
+    private int[][] docTerms = new int[16][];
+    private int docCount = 0;
+    private int liveCount = 0;
+    private long liveLength = 0;
+
+    /**
+     * Indexes (or re-indexes) a memory.
+     */
+    public void upsert(long memoryId, String title, String content) {
+        Map<String, Float> freqs = new HashMap<>();
+        int length = tokenize(title, TITLE_WEIGHT, freqs) + tokenize(content, 1, freqs);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(memoryId);
+            if (freqs.isEmpty()) {
+                return;
+            }
+
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            int[] terms = new int[freqs.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : freqs.entrySet()) {
+                int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+                    postings.add(new Postings());
+                    return postings.size() - 1;
+                });
+                Postings list = postings.get(termId);
+                list.add(doc, entry.getValue());
+                list.liveDocFreq++;
+                terms[i++] = termId;
+            }
+
+            memoryIds[doc] = memoryId;
+            docLengths[doc] = length;
+            docTerms[doc] = terms;
+            docByMemoryId.put(memoryId, doc);
+            liveCount++;
+            liveLength += length;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a memory from the index. Returns false if it was not indexed.
+     */
+    public boolean remove(long memoryId) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeDocument(memoryId);
+            compactIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to k memories ranked by BM25 score against the query, best
+     * first. Memories sharing no term with the query are not returned.
+     */
+    public List<Match> search(String query, int k) {
+        Set<String> queryTerms = new LinkedHashSet<>(terms(query));
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0 || k <= 0 || queryTerms.isEmpty()) {
+                return List.of();
+            }
+
+            float avgLength = (float) liveLength / liveCount;
+            float[] scores = new float[docCount];
+            for (String term : queryTerms) {
+                Integer termId = termIds.get(term);
+                if (termId == null) {
+                    continue;
+                }
+                Postings list = postings.get(termId);
+                if (list.liveDocFreq == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveCount - list.liveDocFreq + 0.5) / (list.liveDocFreq + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    float tf = list.freqs[i];
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * docLengths[doc] / avgLength));
+                }
+            }
+
+            // Min-heap of the best k
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+            for (int doc = 0; doc < docCount; doc++) {
+                float score = scores[doc];
+                if (score <= 0) {
+                    continue;
+                }
+                if (best.size() < k) {
+                    best.add(new Match(memoryIds[doc], score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Match(memoryIds[doc], score));
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(Comparator.comparingDouble(Match::score).reversed());
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeDocument(long memoryId) {
+        Integer doc = docByMemoryId.remove(memoryId);
+        if (doc == null) {
+            return false;
+        }
+        deleted.set(doc);
+        liveCount--;
+        liveLength -= docLengths[doc];
+        for (int termId : docTerms[doc]) {
+            postings.get(termId).liveDocFreq--;
+        }
+        docTerms[doc] = null;
+        return true;
+    }
+
+    /**
+     * Drops tombstoned documents from every postings list and renumbers the
+     * survivors, once they are outnumbered by tombstones.
+     */
+    private void compactIfNeeded() {
+        int deletedCount = docCount - liveCount;
+        if (deletedCount == 0 || deletedCount <= liveCount) {
+            return;
+        }
+
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = next;
+            memoryIds[next] = memoryIds[doc];
+            docLengths[next] = docLengths[doc];
+            docTerms[next] = docTerms[doc];
+            docByMemoryId.put(memoryIds[next], next);
+            next++;
+        }
+        Arrays.fill(docTerms, next, docCount, null);
+
+        for (Postings list : postings) {
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                int doc = remap[list.docs[i]];
+                if (doc >= 0) {
+                    list.docs[kept] = doc;
+                    list.freqs[kept] = list.freqs[i];
+                    kept++;
+                }
+            }
+            list.size = kept;
+        }
+
+        deleted.clear();
+        docCount = next;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > memoryIds.length) {
+            int newLength = Math.max(capacity, memoryIds.length * 2);
+            memoryIds = Arrays.copyOf(memoryIds, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+            docTerms = Arrays.copyOf(docTerms, newLength);
+        }
+    }
+
+    /**
+     * Adds weight to freqs for every token in text; returns the weighted
+     * token count.
+     */
+    private static int tokenize(String text, int weight, Map<String, Float> freqs) {
+        int count = 0;
+        for (String term : terms(text)) {
+            freqs.merge(term, (float) weight, Float::sum);
+            count += weight;
+        }
+        return count;
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    String term = text.substring(start, i).toLowerCase();
+                    if (!STOP_WORDS.contains(term)) {
+                        terms.add(term);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,181 @@
+package com.memory.context.engine.domain.search.index;
+
+import com.memory.context.engine.domain.memory.event.MemoryArchivedEvent;
+import com.memory.context.engine.domain.memory.event.MemoryCreatedEvent;
+import com.memory.context.engine.domain.memory.event.MemoryDomainEvent;
+import com.memory.context.engine.domain.memory.event.MemoryUpdatedEvent;
+import com.memory.context.engine.domain.memory.event.UserDataDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns one BM25 inverted index per user over memories.title and
+ * memories.content.
+ *
+ * The indexes are built from Postgres once the application is ready and kept
+ * current from the memory domain events. Each event re-reads the committed
+ * row, so created, updated and archived memories all go through the same
+ * refresh; a deleted account drops its whole index. Updates that arrive
+ * while the initial build is running are queued and replayed on top of the
+ * snapshot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Bm25IndexManager {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${search.bm25.enabled:true}")
+    private volatile boolean enabled;
+
+    private final Map<String, Bm25Index> indexes = new ConcurrentHashMap<>();
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+    private final Object buildLock = new Object();
+    private volatile boolean ready = false;
+
+    /**
+     * Loads every non-archived memory and builds the per-user indexes.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("BM25 index disabled (search.bm25.enabled=false)");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int[] loaded = { 0 };
+        try {
+            jdbcTemplate.query(
+                    """
+                            SELECT id, user_id, title, content
+                            FROM memories
+                            WHERE archived = false
+                            """,
+                    rs -> {
+                        indexFor(rs.getString("user_id"))
+                                .upsert(rs.getLong("id"), rs.getString("title"), rs.getString("content"));
+                        loaded[0]++;
+                    });
+        } catch (Exception e) {
+            log.error("Failed to build BM25 index, searches will fall back to Postgres: {}", e.getMessage());
+            synchronized (buildLock) {
+                pendingUpdates.clear();
+                indexes.clear();
+                enabled = false;
+            }
+            return;
+        }
+
+        synchronized (buildLock) {
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates.clear();
+            ready = true;
+        }
+
+        log.info("Built BM25 index for {} users ({} memories) in {}ms",
+                indexes.size(), loaded[0], System.currentTimeMillis() - startTime);
+    }
+
+    // After commit, so the refresh reads the row this event describes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemoryCreated(MemoryCreatedEvent event) {
+        refreshLater(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemoryUpdated(MemoryUpdatedEvent event) {
+        refreshLater(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemoryArchived(MemoryArchivedEvent event) {
+        refreshLater(event);
+    }
+
+    /**
+     * Drops the whole index of a deleted account.
+     */
+    @EventListener
+    public void onUserDataDeleted(UserDataDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        apply(() -> indexes.remove(event.getUserId()));
+    }
+
+    /**
+     * Returns the user's index, or empty while the initial build is still
+     * running or the user has no indexed memories (callers should fall back
+     * to Postgres full-text search). Lookups never create an index.
+     */
+    public Optional<Bm25Index> getIndex(String userId) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(indexes.get(userId));
+    }
+
+    private void refreshLater(MemoryDomainEvent event) {
+        if (!enabled) {
+            return;
+        }
+        apply(() -> refresh(event.getUserId(), event.getMemoryId()));
+    }
+
+    /**
+     * Re-indexes one memory from its committed row; archived or missing
+     * memories are removed. Only an upsert creates the user's index.
+     */
+    private void refresh(String userId, Long memoryId) {
+        try {
+            List<String[]> rows = jdbcTemplate.query(
+                    """
+                            SELECT title, content
+                            FROM memories
+                            WHERE id = ? AND user_id = ? AND archived = false
+                            """,
+                    (rs, rowNum) -> new String[] { rs.getString("title"), rs.getString("content") },
+                    memoryId, userId);
+            if (rows.isEmpty()) {
+                Bm25Index index = indexes.get(userId);
+                if (index != null) {
+                    index.remove(memoryId);
+                }
+            } else {
+                indexFor(userId).upsert(memoryId, rows.get(0)[0], rows.get(0)[1]);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh BM25 entry for memory {}: {}", memoryId, e.getMessage());
+        }
+    }
+
+    private Bm25Index indexFor(String userId) {
+        return indexes.computeIfAbsent(userId, id -> new Bm25Index());
+    }
+
+    private void apply(Runnable update) {
+        synchronized (buildLock) {
+            if (!ready) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+}
@@ -0,0 +1,448 @@
+package com.memory.context.engine.domain.search.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory Hierarchical Navigable Small World (HNSW) graph over unit-length
+ * float vectors, keyed by memory ID.
+ *
+ * Distance is cosine distance (1 - dot product); vectors are normalized on
+ * insert. Searches run concurrently under a read lock, mutations take the
+ * write lock. Removed memories are tombstoned and keep routing traffic until
+ * the index is compacted.
+ *
+ * Tuning:
+ * - m: links per node on upper layers (2 * m on layer 0); higher = better
+ * recall, more memory
+ * - efConstruction: beam width while inserting; higher = better graph, slower
+ * builds
+ * - efSearch: beam width while querying; higher = better recall, slower
+ * queries
+ */
+public class HnswIndex {
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeByMemoryId = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount = 0;
+
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch) {
+        if (dimension <= 0 || m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * A single nearest-neighbour hit.
+     */
+    public record Match(long memoryId, float similarity) {
+    }
+
+    private static final class Node {
+        final long memoryId;
+        final float[] vector;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(long memoryId, float[] vector, int level, int m, int maxM0) {
+            this.memoryId = memoryId;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                // One spare slot so a link can be appended before shrinking
+                links[l] = new int[(l == 0 ? maxM0 : m) + 1];
+            }
+        }
+
+        int level() {
+            return links.length - 1;
+        }
+    }
+
+    private record Candidate(int node, float distance) {
+    }
+
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator.comparingDouble(Candidate::distance);
+    private static final Comparator<Candidate> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    /**
+     * Inserts or replaces the vector stored for a memory.
+     */
+    public void upsert(long memoryId, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Invalid vector dimension: expected " + dimension + ", got " + vector.length);
+        }
+        float[] normalized = normalize(vector);
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeByMemoryId.get(memoryId);
+            if (existing != null) {
+                markDeleted(existing);
+            }
+            insert(memoryId, normalized);
+            if (deletedCount > 0 && deletedCount * 2 > nodes.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a memory from the index. Returns false if it was not indexed.
+     */
+    public boolean remove(long memoryId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeByMemoryId.remove(memoryId);
+            if (existing == null) {
+                return false;
+            }
+            markDeleted(existing);
+            if (deletedCount * 2 > nodes.size()) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long memoryId) {
+        lock.readLock().lock();
+        try {
+            return nodeByMemoryId.containsKey(memoryId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeByMemoryId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch must be >= 1");
+        }
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Returns up to k nearest memories to the query, most similar first.
+     */
+    public List<Match> search(float[] query, int k) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Invalid vector dimension: expected " + dimension + ", got " + query.length);
+        }
+        float[] q = normalize(query);
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedyClosest(q, ep, level);
+            }
+
+            // Widen the beam by the number of tombstones we may have to skip
+            int ef = Math.max(efSearch, k) + Math.min(deletedCount, k);
+            PriorityQueue<Candidate> found = searchLayer(q, ep, ef, 0);
+
+            List<Candidate> ordered = new ArrayList<>(found);
+            ordered.sort(NEAREST_FIRST);
+
+            List<Match> matches = new ArrayList<>(Math.min(k, ordered.size()));
+            for (Candidate c : ordered) {
+                Node node = nodes.get(c.node());
+                if (node.deleted) {
+                    continue;
+                }
+                matches.add(new Match(node.memoryId, 1.0f - c.distance()));
+                if (matches.size() == k) {
+                    break;
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================================================
+    // Graph construction
+    // ==================================================
+
+    private void insert(long memoryId, float[] vector) {
+        int level = randomLevel();
+        int id = nodes.size();
+        Node node = new Node(memoryId, vector, level, m, maxM0);
+        nodes.add(node);
+        nodeByMemoryId.put(memoryId, id);
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> candidates = searchLayer(vector, ep, efConstruction, l);
+            List<Candidate> sorted = new ArrayList<>(candidates);
+            sorted.sort(NEAREST_FIRST);
+            ep = sorted.get(0).node();
+
+            List<Candidate> neighbours = selectNeighbours(sorted, m);
+            for (Candidate neighbour : neighbours) {
+                addLink(node, l, neighbour.node());
+                connectBack(neighbour.node(), id, l);
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+    }
+
+    private void connectBack(int from, int to, int level) {
+        Node node = nodes.get(from);
+        addLink(node, level, to);
+
+        int maxConnections = level == 0 ? maxM0 : m;
+        if (node.linkCounts[level] <= maxConnections) {
+            return;
+        }
+
+        List<Candidate> current = new ArrayList<>(node.linkCounts[level]);
+        for (int i = 0; i < node.linkCounts[level]; i++) {
+            int neighbour = node.links[level][i];
+            current.add(new Candidate(neighbour, distance(node.vector, nodes.get(neighbour).vector)));
+        }
+        current.sort(NEAREST_FIRST);
+
+        List<Candidate> kept = selectNeighbours(current, maxConnections);
+        node.linkCounts[level] = 0;
+        for (Candidate c : kept) {
+            addLink(node, level, c.node());
+        }
+    }
+
+    private static void addLink(Node node, int level, int target) {
+        node.links[level][node.linkCounts[level]++] = target;
+    }
+
+    /**
+     * Neighbour selection heuristic: prefer candidates that are closer to the
+     * base than to any already selected neighbour, then back-fill with the
+     * nearest pruned ones. Input must be sorted nearest first.
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> sorted, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+
+        for (Candidate candidate : sorted) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] vector = nodes.get(candidate.node()).vector;
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (distance(vector, nodes.get(chosen.node()).vector) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private void markDeleted(int id) {
+        Node node = nodes.get(id);
+        if (!node.deleted) {
+            node.deleted = true;
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Rebuilds the graph from live nodes once tombstones dominate it.
+     */
+    private void compact() {
+        List<Node> live = new ArrayList<>(nodes.size() - deletedCount);
+        for (Node node : nodes) {
+            if (!node.deleted) {
+                live.add(node);
+            }
+        }
+
+        nodes.clear();
+        nodeByMemoryId.clear();
+        entryPoint = -1;
+        maxLevel = -1;
+        deletedCount = 0;
+
+        for (Node node : live) {
+            insert(node.memoryId, node.vector);
+        }
+    }
+
+    private int randomLevel() {
+        double r = 1.0 - random.nextDouble(); // (0, 1]
+        return (int) (-Math.log(r) * levelMultiplier);
+    }
+
+    // ==================================================
+    // Graph search
+    // ==================================================
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float currentDistance = distance(query, nodes.get(current).vector);
+        boolean improved = true;
+
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            if (level > node.level()) {
+                break;
+            }
+            int[] links = node.links[level];
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                float d = distance(query, nodes.get(links[i]).vector);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = links[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on a single layer. Returns a max-heap (farthest on top) of at
+     * most ef closest nodes.
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+
+        Candidate start = new Candidate(entry, distance(query, nodes.get(entry).vector));
+        visited.set(entry);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (closest.distance() > results.peek().distance() && results.size() >= ef) {
+                break;
+            }
+
+            Node node = nodes.get(closest.node());
+            if (level > node.level()) {
+                continue;
+            }
+            int[] links = node.links[level];
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = links[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+
+                float d = distance(query, nodes.get(neighbour).vector);
+                if (results.size() < ef || d < results.peek().distance()) {
+                    Candidate c = new Candidate(neighbour, d);
+                    candidates.add(c);
+                    results.add(c);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // ==================================================
+    // Vector math
+    // ==================================================
+
+    private static float distance(float[] a, float[] b) {
+        float dot = 0f;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1.0f - dot;
+    }
+
+    private static float[] normalize(float[] vector) {
+        float sum = 0f;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        float[] out = new float[vector.length];
+        if (sum == 0f) {
+            return out;
+        }
+        float inv = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            out[i] = vector[i] * inv;
+        }
+        return out;
+    }
+}
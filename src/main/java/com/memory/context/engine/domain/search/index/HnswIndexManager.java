@@ -0,0 +1,164 @@
+package com.memory.context.engine.domain.search.index;
+
+import com.memory.context.engine.domain.memory.event.MemoryArchivedEvent;
+import com.memory.context.engine.domain.memory.event.UserDataDeletedEvent;
+import com.memory.context.engine.domain.search.event.EmbeddingGeneratedEvent;
+import com.memory.context.engine.domain.search.service.EmbeddingService;
+import com.memory.context.engine.infrastructure.pgvector.PgVectorCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns one HNSW graph per user over the memories.embedding column.
+ *
+ * The graphs are built from Postgres once the application is ready and kept
+ * current from in-process events (embedding generated, memory archived,
+ * account deleted).
+ * Updates that arrive while the initial build is running are queued and
+ * replayed on top of the snapshot so they are never lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HnswIndexManager {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${search.hnsw.enabled:true}")
+    private volatile boolean enabled;
+
+    @Value("${search.hnsw.m:16}")
+    private int m;
+
+    @Value("${search.hnsw.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${search.hnsw.ef-search:64}")
+    private int efSearch;
+
+    private final Map<String, HnswIndex> indexes = new ConcurrentHashMap<>();
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+    private final Object buildLock = new Object();
+    private volatile boolean ready = false;
+
+    /**
+     * Loads every non-archived embedding and builds the per-user graphs.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("HNSW index disabled (search.hnsw.enabled=false)");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int[] loaded = { 0 };
+        try {
+            jdbcTemplate.query(
+                    """
+                            SELECT id, user_id, vector_send(embedding) AS embedding
+                            FROM memories
+                            WHERE archived = false AND embedding IS NOT NULL
+                            """,
+                    rs -> {
+                        // Binary vector_send output: no decimal parsing on either side
+                        float[] vector = PgVectorCodec.decode(rs.getBytes("embedding"));
+                        indexFor(rs.getString("user_id")).upsert(rs.getLong("id"), vector);
+                        loaded[0]++;
+                    });
+        } catch (Exception e) {
+            log.error("Failed to build HNSW index, searches will fall back to pgvector: {}", e.getMessage());
+            synchronized (buildLock) {
+                pendingUpdates.clear();
+                indexes.clear();
+                enabled = false;
+            }
+            return;
+        }
+
+        synchronized (buildLock) {
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates.clear();
+            ready = true;
+        }
+
+        log.info("Built HNSW index for {} users ({} vectors) in {}ms",
+                indexes.size(), loaded[0], System.currentTimeMillis() - startTime);
+    }
+
+    @EventListener
+    public void onEmbeddingGenerated(EmbeddingGeneratedEvent event) {
+        if (!enabled || event.getEmbedding() == null) {
+            return;
+        }
+        apply(() -> indexFor(event.getUserId()).upsert(event.getMemoryId(), event.getEmbedding()));
+    }
+
+    @EventListener
+    public void onMemoryArchived(MemoryArchivedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        apply(() -> {
+            HnswIndex index = indexes.get(event.getUserId());
+            if (index != null) {
+                index.remove(event.getMemoryId());
+            }
+        });
+    }
+
+    /**
+     * Drops the whole graph of a deleted account.
+     */
+    @EventListener
+    public void onUserDataDeleted(UserDataDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        apply(() -> indexes.remove(event.getUserId()));
+    }
+
+    /**
+     * Returns the user's graph, or empty while the initial build is still
+     * running or the user has no indexed vectors yet (callers should fall
+     * back to pgvector). Lookups never create a graph.
+     */
+    public Optional<HnswIndex> getIndex(String userId) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(indexes.get(userId));
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    private HnswIndex indexFor(String userId) {
+        return indexes.computeIfAbsent(userId,
+                id -> new HnswIndex(EmbeddingService.EMBEDDING_DIMENSION, m, efConstruction, efSearch));
+    }
+
+    private void apply(Runnable update) {
+        synchronized (buildLock) {
+            if (!ready) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.memory.context.engine.domain.search.repository;
+
+import com.memory.context.engine.domain.search.api.dto.SearchResult;
+import com.memory.context.engine.infrastructure.pgvector.PgVectorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Postgres queries shared by the search strategies. Every query is scoped to
+ * one user's non-archived memories; similarityScore carries the raw score of
+ * the query (ts_rank, cosine similarity or the caller's own score).
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemorySearchRepository {
+
+    private static final RowMapper<SearchResult> SCORED_ROW = (rs, rowNum) -> SearchResult.builder()
+            .id(rs.getLong("id"))
+            .title(rs.getString("title"))
+            .content(rs.getString("content"))
+            .similarityScore(rs.getDouble("similarity"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Full-text search on the stored search_vector, ranked by ts_rank.
+     */
+    public List<SearchResult> fullText(String query, String userId, int limit) {
+        return jdbcTemplate.query(
+                """
+                        SELECT id, title, content,
+                               ts_rank(search_vector, plainto_tsquery('english', ?)) as similarity
+                        FROM memories
+                        WHERE user_id = ?
+                          AND archived = false
+                          AND search_vector @@ plainto_tsquery('english', ?)
+                        ORDER BY similarity DESC, importance_score DESC, created_at DESC
+                        LIMIT ?
+                        """,
+                SCORED_ROW, query, userId, query, limit);
+    }
+
+    /**
+     * Nearest neighbours by cosine distance on memories.embedding (pgvector).
+     */
+    public List<SearchResult> nearestByEmbedding(float[] queryVector, String userId, int limit) {
+        String vector = PgVectorCodec.toText(queryVector);
+        return jdbcTemplate.query(
+                """
+                        SELECT id, title, content,
+                               1 - (embedding <=> ?::vector) as similarity
+                        FROM memories
+                        WHERE user_id = ?
+                          AND archived = false
+                          AND embedding IS NOT NULL
+                        ORDER BY embedding <=> ?::vector
+                        LIMIT ?
+                        """,
+                SCORED_ROW, vector, userId, vector, limit);
+    }
+
+    /**
+     * Loads title/content for ids ranked in the JVM, in one primary-key
+     * lookup, and returns them ordered by the given scores. Rows archived or
+     * deleted since indexing drop out here.
+     */
+    public List<SearchResult> hydrate(String userId, Map<Long, Double> scores) {
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> params = new ArrayList<>(scores.size() + 1);
+        params.add(userId);
+        params.addAll(scores.keySet());
+
+        String placeholders = String.join(",", Collections.nCopies(scores.size(), "?"));
+        String sql = String.format("""
+                SELECT id, title, content
+                FROM memories
+                WHERE user_id = ?
+                  AND archived = false
+                  AND id IN (%s)
+                """, placeholders);
+
+        List<SearchResult> results = jdbcTemplate.query(sql,
+                (rs, rowNum) -> SearchResult.builder()
+                        .id(rs.getLong("id"))
+                        .title(rs.getString("title"))
+                        .content(rs.getString("content"))
+                        .similarityScore(scores.get(rs.getLong("id")))
+                        .build(),
+                params.toArray());
+
+        results.sort((a, b) -> Double.compare(b.getSimilarityScore(), a.getSimilarityScore()));
+        return results;
+    }
+}
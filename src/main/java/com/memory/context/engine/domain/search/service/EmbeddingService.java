@@ -1,131 +1,188 @@
 package com.memory.context.engine.domain.search.service;
 
 import com.memory.context.engine.domain.memory.entity.Memory;
+import com.memory.context.engine.domain.search.embedding.EmbeddingProvider;
 import com.memory.context.engine.domain.memory.repository.MemoryRepository;
 import com.memory.context.engine.domain.memory.event.MemoryCreatedEvent;
 import com.memory.context.engine.domain.memory.event.MemoryUpdatedEvent;
 import com.memory.context.engine.domain.memory.event.MemoryDomainEvent;
 import com.memory.context.engine.domain.search.event.EmbeddingGeneratedEvent;
 import com.memory.context.engine.infrastructure.kafka.KafkaConfig;
+import com.memory.context.engine.infrastructure.pgvector.PgVectorBulkWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Service for generating and storing vector embeddings.
- * Listens to Kafka events for async processing.
+ * Listens to Kafka events in batches for async processing.
  * 
- * NOTE: Actual embedding generation requires an external API (OpenAI, Cohere,
- * etc.)
- * This is a placeholder that would be extended with actual embedding calls.
+ * Vectors come from the configured EmbeddingProvider (local hashing by
+ * default, or a remote embeddings API).
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmbeddingService {
 
-    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingProvider embeddingProvider;
+    private final PgVectorBulkWriter bulkWriter;
     private final ApplicationEventPublisher eventPublisher;
     private final MemoryRepository memoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${embedding.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Value("${embedding.batch.max-records:500}")
+    private int backfillChunkSize;
 
     // Embedding dimension (OpenAI ada-002 uses 1536)
-    private static final int EMBEDDING_DIMENSION = 1536;
-
-    @KafkaListener(topics = KafkaConfig.Topics.MEMORY_EVENTS, groupId = "embedding-service-group", containerFactory = "kafkaListenerContainerFactory")
-    public void processEvent(MemoryDomainEvent event) {
-        if (event instanceof MemoryCreatedEvent created) {
-            log.debug("Received Kafka MemoryCreatedEvent for memory: {}", created.getMemoryId());
-            generateEmbedding(created.getMemoryId(), created.getUserId());
-        } else if (event instanceof MemoryUpdatedEvent updated) {
-            if (updated.getUpdatedFields().contains("content") || updated.getUpdatedFields().contains("title")) {
-                log.debug("Received Kafka MemoryUpdatedEvent for memory: {}", updated.getMemoryId());
-                generateEmbedding(updated.getMemoryId(), updated.getUserId());
-            }
-        }
-    }
+    public static final int EMBEDDING_DIMENSION = 1536;
 
     /**
-     * Generates and stores embedding for a memory.
+     * Batch listener: one poll's worth of events is embedded together.
+     * Memories are loaded with a single findAllById, embedded with one
+     * embeddingProvider.embedBatch call and written by PgVectorBulkWriter
+     * (a batched UPDATE below 32 rows, binary COPY above).
      */
-    public void generateEmbedding(Long memoryId, String userId) {
-        log.info("Generating embedding for memory: {} for user: {}", memoryId, userId);
+    @KafkaListener(topics = KafkaConfig.Topics.MEMORY_EVENTS, groupId = "embedding-service-group", containerFactory = "batchKafkaListenerContainerFactory", properties = {
+            "max.poll.records=${embedding.batch.max-records:500}" })
+    public void processEvents(List<MemoryDomainEvent> events) {
+        // A memory touched several times in one batch is embedded once
+        Set<Long> memoryIds = new LinkedHashSet<>();
+        for (MemoryDomainEvent event : events) {
+            if (requiresEmbedding(event)) {
+                memoryIds.add(event.getMemoryId());
+            }
+        }
 
-        Memory memory = memoryRepository.findById(memoryId).orElse(null);
-        if (memory == null) {
-            log.warn("Memory not found for embedding generation: {}", memoryId);
+        if (memoryIds.isEmpty()) {
             return;
         }
 
-        // Use word-based summation for deterministic "pseudo-embeddings"
-        // This ensures shared words lead to higher vector similarity
-        String[] words = (memory.getTitle() + " " + memory.getContent())
-                .toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", "")
-                .split("\\s+");
+        log.debug("Received {} Kafka events, {} memories need embeddings", events.size(), memoryIds.size());
+        generateEmbeddings(memoryIds);
+    }
 
-        float[] embedding = new float[EMBEDDING_DIMENSION];
+    private boolean requiresEmbedding(MemoryDomainEvent event) {
+        if (event instanceof MemoryCreatedEvent) {
+            return true;
+        }
+        if (event instanceof MemoryUpdatedEvent updated) {
+            return updated.getUpdatedFields().contains("content") || updated.getUpdatedFields().contains("title");
+        }
+        return false;
+    }
 
-        for (String word : words) {
-            if (word.length() < 3)
-                continue; // Skip small words
+    /**
+     * Generates and stores embeddings for a set of memories in one pass.
+     */
+    public void generateEmbeddings(Collection<Long> memoryIds) {
+        generateEmbeddings(memoryIds, false);
+    }
 
-            java.util.Random random = new java.util.Random(word.hashCode());
-            for (int i = 0; i < EMBEDDING_DIMENSION; i++) {
-                embedding[i] += random.nextFloat() - 0.5f;
-            }
-        }
+    /**
+     * reembed=true for existing memories moved to a new vector space: the
+     * events it publishes refresh the HNSW index but skip intelligent linking.
+     */
+    private void generateEmbeddings(Collection<Long> memoryIds, boolean reembed) {
+        long startTime = System.currentTimeMillis();
 
-        // Normalize
-        double norm = 0.0;
-        for (int i = 0; i < EMBEDDING_DIMENSION; i++) {
-            norm += embedding[i] * embedding[i];
+        List<Memory> memories = memoryRepository.findAllById(memoryIds);
+        if (memories.size() < memoryIds.size()) {
+            log.warn("{} memories not found for embedding generation", memoryIds.size() - memories.size());
         }
-        norm = Math.sqrt(norm);
-
-        if (norm > 0) {
-            for (int i = 0; i < EMBEDDING_DIMENSION; i++) {
-                embedding[i] /= (float) norm;
-            }
+        if (memories.isEmpty()) {
+            return;
         }
 
-        updateEmbedding(memoryId, embedding);
-        log.debug("Embedding generated and saved for memory: {}", memoryId);
+        // One provider call for the whole batch
+        List<float[]> embeddings = embeddingProvider.embedBatch(memories.stream()
+                .map(m -> m.getTitle() + " " + m.getContent())
+                .toList());
+
+        bulkWriter.writeEmbeddings(memories.stream().map(Memory::getId).toList(), embeddings);
 
-        // Publish event for intelligent linking
-        eventPublisher.publishEvent(new EmbeddingGeneratedEvent(memoryId, userId));
+        log.info("Generated {} embeddings in {}ms", memories.size(), System.currentTimeMillis() - startTime);
+
+        // Publish events for the HNSW index (and linking, unless re-embedding) once the batch is durable
+        for (int i = 0; i < memories.size(); i++) {
+            Memory memory = memories.get(i);
+            eventPublisher.publishEvent(
+                    new EmbeddingGeneratedEvent(memory.getId(), memory.getUserId(), embeddings.get(i), reembed));
+        }
     }
 
     /**
-     * Updates the embedding vector for a memory.
+     * Computes the pseudo-embedding for arbitrary text (memories and search
+     * queries share this so they land in the same vector space).
      */
-    public void updateEmbedding(Long memoryId, float[] embedding) {
-        if (embedding.length != EMBEDDING_DIMENSION) {
-            log.error("Invalid embedding dimension: expected {}, got {}",
-                    EMBEDDING_DIMENSION, embedding.length);
+    public float[] embedText(String text) {
+        return embeddingProvider.embed(text);
+    }
+
+    /**
+     * Re-embeds every active memory in keyset-paged chunks when stored vectors
+     * may come from a different space than query vectors: once per provider
+     * vector space (tracked in embedding_spaces), or always with
+     * embedding.backfill-on-startup=true.
+     *
+     * The space is claimed with an insert before the work starts, so only one
+     * instance backfills. A claim left without completed_at (instance died
+     * mid-way) is not retried automatically; set the property to force a run.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        String space = embeddingProvider.vectorSpace();
+        boolean claimed;
+        try {
+            claimed = jdbcTemplate.update(
+                    "INSERT INTO embedding_spaces (space) VALUES (?) ON CONFLICT (space) DO NOTHING", space) == 1;
+        } catch (Exception e) {
+            log.error("Could not check embedding space '{}', skipping backfill: {}", space, e.getMessage());
             return;
         }
 
-        // Convert float array to pgvector format
-        String vectorString = arrayToVectorString(embedding);
-
-        jdbcTemplate.update(
-                "UPDATE memories SET embedding = ?::vector WHERE id = ?",
-                vectorString, memoryId);
-
-        log.debug("Embedding updated for memory: {}", memoryId);
-    }
+        if (!claimed && !backfillOnStartup) {
+            List<Object> completed = jdbcTemplate.queryForList(
+                    "SELECT completed_at FROM embedding_spaces WHERE space = ?", Object.class, space);
+            if (!completed.isEmpty() && completed.get(0) == null) {
+                log.warn("Embedding backfill for space '{}' was started but never completed; "
+                        + "set embedding.backfill-on-startup=true to rerun it", space);
+            }
+            return;
+        }
 
-    private String arrayToVectorString(float[] embedding) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0)
-                sb.append(",");
-            sb.append(embedding[i]);
+        log.info("Re-embedding all active memories into space '{}' (chunk size {})", space, backfillChunkSize);
+        long lastId = 0;
+        int total = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM memories WHERE id > ? AND archived = false ORDER BY id LIMIT ?",
+                    Long.class, lastId, backfillChunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            generateEmbeddings(ids, true);
+            total += ids.size();
+            lastId = ids.get(ids.size() - 1);
         }
-        sb.append("]");
-        return sb.toString();
+
+        jdbcTemplate.update("UPDATE embedding_spaces SET completed_at = NOW() WHERE space = ?", space);
+        log.info("Re-embedded {} memories", total);
     }
 }
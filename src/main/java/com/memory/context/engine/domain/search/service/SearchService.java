@@ -31,15 +31,17 @@ public class SearchService {
      * NOTE: Requires embedding generation for the query.
      * Currently a placeholder - actual implementation would call embedding API.
      */
-    @Cacheable(value = CACHE_SEARCH, key = "'user:' + #root.target.getCurrentUser() + ':q:' + #request.query + ':l:' + #request.limit")
+    @Cacheable(value = CACHE_SEARCH, key = "@userCacheRegions.currentScope() + ':q:' + #request.query + ':l:' + #request.limit + ':t:' + #request.similarityThreshold + ':s:' + #request.strategy")
     public List<SearchResult> search(SearchRequest request) {
         String userId = getCurrentUser();
         log.info("Searching memories for user: {}, query: {}", userId, request.getQuery());
 
-        // Use factory to get the appropriate strategy (defaulting to vector if not
+        // Use factory to get the requested strategy (defaulting to vector if not
         // specified)
-        // In the future, request.getType() could specify 'keyword' vs 'vector'
-        return searchStrategyFactory.getDefaultStrategy().search(request, userId);
+        var strategy = request.getStrategy() == null || request.getStrategy().isBlank()
+                ? searchStrategyFactory.getDefaultStrategy()
+                : searchStrategyFactory.getStrategy(request.getStrategy());
+        return strategy.search(request, userId);
     }
 
     /**
@@ -0,0 +1,68 @@
+package com.memory.context.engine.domain.search.strategy;
+
+import com.memory.context.engine.domain.search.api.dto.SearchRequest;
+import com.memory.context.engine.domain.search.api.dto.SearchResult;
+import com.memory.context.engine.domain.search.index.Bm25Index;
+import com.memory.context.engine.domain.search.index.Bm25IndexManager;
+import com.memory.context.engine.domain.search.repository.MemorySearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keyword search strategy backed by the in-process per-user BM25 index.
+ * Ranking happens in the JVM; Postgres is only hit to hydrate the winning
+ * rows by primary key. Scores are relative to the best hit (1.0). Falls back
+ * to Postgres full-text search while the index is still being built or when
+ * the user has no index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Bm25SearchStrategy implements SearchStrategy {
+
+  private final Bm25IndexManager indexManager;
+  private final MemorySearchRepository searchRepository;
+
+  @Override
+  public String getName() {
+    return "bm25";
+  }
+
+  @Override
+  public List<SearchResult> search(SearchRequest request, String userId) {
+    log.info("Executing BM25 search for user: {}, query: '{}'", userId, request.getQuery());
+
+    String query = request.getQuery().trim();
+
+    Optional<Bm25Index> index = indexManager.getIndex(userId);
+    if (index.isEmpty()) {
+      log.debug("No BM25 index for user, falling back to Postgres full-text search");
+      return searchRepository.fullText(query, userId, request.getLimit());
+    }
+
+    List<Bm25Index.Match> matches = index.get().search(query, request.getLimit());
+    return hydrate(matches, userId);
+  }
+
+  /**
+   * Scores are relative to the best hit, which gets 1.0.
+   */
+  private List<SearchResult> hydrate(List<Bm25Index.Match> matches, String userId) {
+    if (matches.isEmpty()) {
+      return List.of();
+    }
+
+    float topScore = matches.get(0).score();
+    Map<Long, Double> scores = new HashMap<>();
+    for (Bm25Index.Match match : matches) {
+      scores.put(match.memoryId(), (double) (match.score() / topScore));
+    }
+    return searchRepository.hydrate(userId, scores);
+  }
+}
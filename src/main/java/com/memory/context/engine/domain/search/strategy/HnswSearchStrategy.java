@@ -0,0 +1,61 @@
+package com.memory.context.engine.domain.search.strategy;
+
+import com.memory.context.engine.domain.search.api.dto.SearchRequest;
+import com.memory.context.engine.domain.search.api.dto.SearchResult;
+import com.memory.context.engine.domain.search.index.HnswIndex;
+import com.memory.context.engine.domain.search.index.HnswIndexManager;
+import com.memory.context.engine.domain.search.repository.MemorySearchRepository;
+import com.memory.context.engine.domain.search.service.EmbeddingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Search strategy backed by the in-process per-user HNSW graph.
+ * Top-k is computed in the JVM; Postgres is only hit to hydrate the winning
+ * rows by primary key. Falls back to a pgvector scan while the graph is still
+ * being built.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HnswSearchStrategy implements SearchStrategy {
+
+  private final HnswIndexManager indexManager;
+  private final EmbeddingService embeddingService;
+  private final MemorySearchRepository searchRepository;
+
+  @Override
+  public String getName() {
+    return "hnsw";
+  }
+
+  @Override
+  public List<SearchResult> search(SearchRequest request, String userId) {
+    log.info("Executing HNSW search for user: {}, query: '{}'", userId, request.getQuery());
+
+    float[] queryVector = embeddingService.embedText(request.getQuery().trim());
+
+    Optional<HnswIndex> index = indexManager.getIndex(userId);
+    if (index.isEmpty()) {
+      log.debug("No HNSW index for user yet, falling back to pgvector scan");
+      return searchRepository.nearestByEmbedding(queryVector, userId, request.getLimit());
+    }
+
+    List<HnswIndex.Match> matches = index.get().search(queryVector, request.getLimit());
+    return hydrate(matches, userId);
+  }
+
+  private List<SearchResult> hydrate(List<HnswIndex.Match> matches, String userId) {
+    Map<Long, Double> scores = new HashMap<>();
+    for (HnswIndex.Match match : matches) {
+      scores.put(match.memoryId(), (double) match.similarity());
+    }
+    return searchRepository.hydrate(userId, scores);
+  }
+}
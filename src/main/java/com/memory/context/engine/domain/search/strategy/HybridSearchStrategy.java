@@ -0,0 +1,118 @@
+package com.memory.context.engine.domain.search.strategy;
+
+import com.memory.context.engine.domain.search.api.dto.SearchRequest;
+import com.memory.context.engine.domain.search.api.dto.SearchResult;
+import com.memory.context.engine.domain.search.repository.MemorySearchRepository;
+import com.memory.context.engine.domain.search.service.EmbeddingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hybrid search: runs the full-text (tsvector) query and the pgvector ANN
+ * query concurrently and merges them with Reciprocal Rank Fusion (RRF).
+ *
+ * RRF score = sum over lists of 1 / (RRF_K + rank), so documents ranked well
+ * by both retrievers float to the top without having to calibrate ts_rank
+ * against cosine similarity. Vector hits are only cut by similarityThreshold
+ * when the client sets one: fusion works on ranks, and absolute cosine values
+ * of the hashing embeddings are low enough that a fixed cut-off would drop
+ * most of the vector leg. Lexical hits are always kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HybridSearchStrategy implements SearchStrategy {
+
+  // Standard RRF damping constant (Cormack et al.)
+  private static final int RRF_K = 60;
+
+  // Each retriever fetches a deeper candidate pool than the final limit
+  private static final int CANDIDATE_MULTIPLIER = 3;
+
+  private final MemorySearchRepository searchRepository;
+  private final EmbeddingService embeddingService;
+  private final AsyncTaskExecutor applicationTaskExecutor;
+
+  @Override
+  public String getName() {
+    return "hybrid";
+  }
+
+  @Override
+  public List<SearchResult> search(SearchRequest request, String userId) {
+    log.info("Executing hybrid search for user: {}, query: '{}'", userId, request.getQuery());
+
+    String query = request.getQuery().trim();
+    int candidates = request.getLimit() * CANDIDATE_MULTIPLIER;
+    Double threshold = request.getSimilarityThreshold();
+
+    CompletableFuture<List<SearchResult>> textFuture = CompletableFuture.supplyAsync(
+        () -> searchRepository.fullText(query, userId, candidates), applicationTaskExecutor);
+    CompletableFuture<List<SearchResult>> vectorFuture = CompletableFuture.supplyAsync(
+        () -> executeVectorSearch(query, userId, candidates, threshold), applicationTaskExecutor);
+
+    List<SearchResult> textHits = joinOrEmpty(textFuture, "full-text");
+    List<SearchResult> vectorHits = joinOrEmpty(vectorFuture, "vector");
+
+    return fuse(textHits, vectorHits, request.getLimit());
+  }
+
+  /**
+   * Reciprocal Rank Fusion in a single pass over both ranked lists.
+   * Scores are normalized to 0..1 (1.0 = ranked first by both retrievers).
+   */
+  static List<SearchResult> fuse(List<SearchResult> textHits, List<SearchResult> vectorHits, int limit) {
+    Map<Long, SearchResult> byId = new HashMap<>();
+    Map<Long, Double> scores = new HashMap<>();
+
+    for (List<SearchResult> ranked : List.of(textHits, vectorHits)) {
+      for (int rank = 0; rank < ranked.size(); rank++) {
+        SearchResult hit = ranked.get(rank);
+        byId.putIfAbsent(hit.getId(), hit);
+        scores.merge(hit.getId(), 1.0 / (RRF_K + rank + 1), Double::sum);
+      }
+    }
+
+    double maxScore = 2.0 / (RRF_K + 1);
+    List<SearchResult> fused = new ArrayList<>(byId.size());
+    for (Map.Entry<Long, SearchResult> entry : byId.entrySet()) {
+      SearchResult hit = entry.getValue();
+      fused.add(SearchResult.builder()
+          .id(hit.getId())
+          .title(hit.getTitle())
+          .content(hit.getContent())
+          .similarityScore(scores.get(entry.getKey()) / maxScore)
+          .build());
+    }
+
+    fused.sort((a, b) -> Double.compare(b.getSimilarityScore(), a.getSimilarityScore()));
+    return fused.size() > limit ? fused.subList(0, limit) : fused;
+  }
+
+  private List<SearchResult> joinOrEmpty(CompletableFuture<List<SearchResult>> future, String leg) {
+    try {
+      return future.join();
+    } catch (Exception e) {
+      log.warn("Hybrid search {} leg failed, continuing without it: {}", leg, e.getMessage());
+      return List.of();
+    }
+  }
+
+  private List<SearchResult> executeVectorSearch(String query, String userId, int limit, Double threshold) {
+    List<SearchResult> hits = searchRepository.nearestByEmbedding(embeddingService.embedText(query), userId, limit);
+
+    // Filter after the ORDER BY ... LIMIT so the ANN index can still be used
+    if (threshold != null) {
+      hits.removeIf(hit -> hit.getSimilarityScore() < threshold);
+    }
+    return hits;
+  }
+}
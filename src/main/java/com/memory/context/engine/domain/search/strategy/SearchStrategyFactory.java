@@ -1,5 +1,6 @@
 package com.memory.context.engine.domain.search.strategy;
 
+import com.memory.context.engine.domain.common.exception.InvalidSearchStrategyException;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -24,7 +25,7 @@ public class SearchStrategyFactory {
 
     public SearchStrategy getStrategy(String name) {
         return Optional.ofNullable(strategies.get(name))
-                .orElseThrow(() -> new IllegalArgumentException("Unknown search strategy: " + name));
+                .orElseThrow(() -> new InvalidSearchStrategyException("Unknown search strategy: " + name));
     }
 
     public SearchStrategy getDefaultStrategy() {
@@ -2,6 +2,7 @@ package com.memory.context.engine.domain.search.strategy;
 
 import com.memory.context.engine.domain.search.api.dto.SearchRequest;
 import com.memory.context.engine.domain.search.api.dto.SearchResult;
+import com.memory.context.engine.domain.search.repository.MemorySearchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -18,6 +19,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class VectorSearchStrategy implements SearchStrategy {
 
+  private final MemorySearchRepository searchRepository;
   private final JdbcTemplate jdbcTemplate;
 
   @Override
@@ -45,31 +47,9 @@ public class VectorSearchStrategy implements SearchStrategy {
    * Tokenizes words and applies stemming for better multi-word matching.
    */
   private List<SearchResult> executeFullTextSearch(String query, String userId, int limit) {
-    return jdbcTemplate.query(
-        """
-            SELECT id, title, content,
-                   ts_rank(
-                       setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
-                       setweight(to_tsvector('english', COALESCE(content, '')), 'B'),
-                       plainto_tsquery('english', ?)
-                   ) as similarity
-            FROM memories
-            WHERE user_id = ?
-              AND archived = false
-              AND (
-                  to_tsvector('english', COALESCE(title, '') || ' ' || COALESCE(content, ''))
-                  @@ plainto_tsquery('english', ?)
-              )
-            ORDER BY similarity DESC, importance_score DESC, created_at DESC
-            LIMIT ?
-            """,
-        (rs, rowNum) -> SearchResult.builder()
-            .id(rs.getLong("id"))
-            .title(rs.getString("title"))
-            .content(rs.getString("content"))
-            .similarityScore(Math.min(1.0, rs.getDouble("similarity") + 0.5))
-            .build(),
-        query, userId, query, limit);
+    List<SearchResult> hits = searchRepository.fullText(query, userId, limit);
+    hits.forEach(hit -> hit.setSimilarityScore(Math.min(1.0, hit.getSimilarityScore() + 0.5)));
+    return hits;
   }
 
   /**
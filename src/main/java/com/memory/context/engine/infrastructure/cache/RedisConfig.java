@@ -12,6 +12,7 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -32,6 +33,10 @@ public class RedisConfig {
         public static final String MEMORY_LIST_CACHE = "memory-lists";
         public static final Duration MEMORY_TTL = Duration.ofMinutes(30);
         public static final Duration LIST_TTL = Duration.ofMinutes(5);
+        // Lists, searches and graph entries are invalidated per user by
+        // UserCacheRegions; superseded generations are dropped by these TTLs
+        public static final Duration SEARCH_TTL = Duration.ofMinutes(10);
+        public static final Duration GRAPH_TTL = Duration.ofMinutes(30);
 
         @Bean
         @Primary
@@ -92,6 +97,19 @@ public class RedisConfig {
                                 .cacheDefaults(defaultConfig)
                                 .withCacheConfiguration(MEMORY_CACHE, memoryConfig)
                                 .withCacheConfiguration(MEMORY_LIST_CACHE, listConfig)
+                                .withCacheConfiguration(CacheNames.SEARCH, defaultConfig.entryTtl(SEARCH_TTL))
+                                .withCacheConfiguration(CacheNames.GRAPH, defaultConfig.entryTtl(GRAPH_TTL))
                                 .build();
         }
+
+        /**
+         * Shared pub/sub listener container (semantic cache L1 invalidation).
+         */
+        @Bean
+        public RedisMessageListenerContainer redisMessageListenerContainer(
+                        RedisConnectionFactory connectionFactory) {
+                RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+                container.setConnectionFactory(connectionFactory);
+                return container;
+        }
 }
@@ -0,0 +1,97 @@
+package com.memory.context.engine.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Per-user cache regions for memory-lists, search-results and
+ * graph-traversal.
+ *
+ * Each user has a generation counter in Redis, and keys of those caches start
+ * with scope(userId) = "user:{userId}:g{generation}". A write bumps the
+ * writer's counter (one INCR), which orphans all of that user's entries at
+ * once and leaves every other user's entries alone. Orphaned entries are
+ * never read again and expire through the cache TTLs.
+ */
+@Slf4j
+@Component("userCacheRegions")
+@RequiredArgsConstructor
+public class UserCacheRegions {
+
+    private static final String GENERATION_PREFIX = "cache-gen:";
+
+    // Must outlive the TTLs in RedisConfig: a counter that expires restarts at
+    // 0, which is only safe once entries of the old generation 0 are gone
+    private static final Duration GENERATION_TTL = Duration.ofDays(1);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Key prefix for the authenticated user's current region. Used from
+     * {@code @Cacheable} keys as {@code @userCacheRegions.currentScope()}.
+     */
+    public String currentScope() {
+        return scope(SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    public String scope(String userId) {
+        return "user:" + userId + ":g" + generation(userId);
+    }
+
+    /**
+     * Invalidates all of the user's list, search and graph entries. Inside a
+     * transaction the bump happens after commit, so a concurrent read cannot
+     * re-cache pre-commit data under the new generation.
+     */
+    public void evictUser(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(userId);
+                }
+            });
+        } else {
+            bump(userId);
+        }
+    }
+
+    /**
+     * Evicts individually cached memories (the memories cache is keyed by id).
+     */
+    public void evictMemories(Collection<Long> memoryIds) {
+        Cache memories = cacheManager.getCache(CacheNames.MEMORIES);
+        if (memories == null) {
+            return;
+        }
+        for (Long id : memoryIds) {
+            memories.evict(id);
+        }
+    }
+
+    private long generation(String userId) {
+        String value = stringRedisTemplate.opsForValue().get(GENERATION_PREFIX + userId);
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    private void bump(String userId) {
+        String key = GENERATION_PREFIX + userId;
+        try {
+            stringRedisTemplate.opsForValue().increment(key);
+            stringRedisTemplate.expire(key, GENERATION_TTL);
+        } catch (Exception e) {
+            log.error("Failed to invalidate cache region for user {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -91,6 +91,28 @@ public class KafkaConfig {
                 return factory;
         }
 
+        /**
+         * Batch-mode listener factory: the listener receives every record returned
+         * by a single poll as one List, so per-record DB round-trips can be
+         * amortized. The whole batch is retried on failure.
+         */
+        @Bean
+        public org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+                        org.springframework.kafka.core.ConsumerFactory<String, Object> consumerFactory) {
+
+                org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, Object> factory = new org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<>();
+                factory.setConsumerFactory(consumerFactory);
+                factory.setBatchListener(true);
+                factory.setConcurrency(3);
+
+                org.springframework.util.backoff.FixedBackOff backOff = new org.springframework.util.backoff.FixedBackOff(
+                                1000L,
+                                3);
+                factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler(backOff));
+
+                return factory;
+        }
+
         @Bean
         public org.springframework.kafka.core.ConsumerFactory<String, Object> consumerFactory(
                         ObjectMapper objectMapper) {
@@ -0,0 +1,126 @@
+package com.memory.context.engine.infrastructure.pgvector;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes embeddings to memories.embedding using COPY ... (FORMAT BINARY).
+ *
+ * Vectors travel in pgvector's native binary form, so neither side formats or
+ * parses ~20 KB decimal strings. Batches are streamed into a
+ * transaction-scoped staging table and applied with one set-based UPDATE.
+ * Small writes skip the staging table and run a batched UPDATE with the
+ * vector bound as a text literal; for a handful of rows the round trips saved
+ * outweigh the parsing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PgVectorBulkWriter {
+
+    // Below this many rows the temp table, COPY and DROP cost more round trips
+    // than they save
+    private static final int COPY_MIN_ROWS = 32;
+
+    private static final byte[] COPY_SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sets embedding = vectors[i] for each memory ids[i].
+     */
+    @Transactional
+    public void writeEmbeddings(List<Long> ids, List<float[]> vectors) {
+        if (ids.size() != vectors.size()) {
+            throw new IllegalArgumentException("ids and vectors must be the same size");
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        if (ids.size() < COPY_MIN_ROWS) {
+            updateWithTextLiterals(ids, vectors);
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                // Non-Postgres driver (e.g. tests): plain text literals
+                updateWithTextLiterals(ids, vectors);
+            } else {
+                copyBinary(connection, ids, vectors);
+            }
+            return null;
+        });
+    }
+
+    private void copyBinary(Connection connection, List<Long> ids, List<float[]> vectors) throws SQLException {
+        int dimension = vectors.get(0).length;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE embedding_staging (id BIGINT NOT NULL, embedding vector("
+                    + dimension + ") NOT NULL) ON COMMIT DROP");
+        }
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY embedding_staging (id, embedding) FROM STDIN (FORMAT BINARY)");
+        try {
+            // Header: signature, flags, header extension length
+            ByteBuffer header = ByteBuffer.allocate(COPY_SIGNATURE.length + 8);
+            header.put(COPY_SIGNATURE).putInt(0).putInt(0);
+            copyIn.writeToCopy(header.array(), 0, header.position());
+
+            // Tuple: field count, then (length, bytes) per field
+            int vectorBytes = PgVectorCodec.encodedSize(dimension);
+            ByteBuffer row = ByteBuffer.allocate(2 + 4 + Long.BYTES + 4 + vectorBytes);
+            for (int i = 0; i < ids.size(); i++) {
+                row.clear();
+                row.putShort((short) 2);
+                row.putInt(Long.BYTES).putLong(ids.get(i));
+                row.putInt(vectorBytes);
+                PgVectorCodec.encode(vectors.get(i), row);
+                copyIn.writeToCopy(row.array(), 0, row.position());
+            }
+
+            // Trailer
+            copyIn.writeToCopy(new byte[] { (byte) 0xFF, (byte) 0xFF }, 0, 2);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            int updated = statement.executeUpdate("""
+                    UPDATE memories m
+                    SET embedding = s.embedding
+                    FROM embedding_staging s
+                    WHERE m.id = s.id
+                    """);
+            statement.execute("DROP TABLE embedding_staging");
+            log.debug("Binary COPY wrote {} embeddings", updated);
+        }
+    }
+
+    private void updateWithTextLiterals(List<Long> ids, List<float[]> vectors) {
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            batchArgs.add(new Object[] { PgVectorCodec.toText(vectors.get(i)), ids.get(i) });
+        }
+        jdbcTemplate.batchUpdate("UPDATE memories SET embedding = ?::vector WHERE id = ?", batchArgs);
+    }
+}
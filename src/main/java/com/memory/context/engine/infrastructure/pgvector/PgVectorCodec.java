@@ -0,0 +1,69 @@
+package com.memory.context.engine.infrastructure.pgvector;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes pgvector's binary wire format (vector_send/vector_recv):
+ * int16 dimension, int16 unused (0), then dimension big-endian float32 values.
+ */
+public final class PgVectorCodec {
+
+    private static final int HEADER_BYTES = 4;
+
+    private PgVectorCodec() {
+        // Utility class
+    }
+
+    /**
+     * Size in bytes of the binary form of a vector with the given dimension.
+     */
+    public static int encodedSize(int dimension) {
+        return HEADER_BYTES + dimension * Float.BYTES;
+    }
+
+    /**
+     * Writes the binary form of the vector at the buffer's current position.
+     */
+    public static void encode(float[] vector, ByteBuffer buffer) {
+        buffer.putShort((short) vector.length);
+        buffer.putShort((short) 0);
+        for (float v : vector) {
+            buffer.putFloat(v);
+        }
+    }
+
+    public static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(vector.length));
+        encode(vector, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Formats a vector as a pgvector text literal, e.g. "[0.1,0.2]". Only for
+     * single query parameters; bulk writes should use the binary form.
+     */
+    public static String toText(float[] vector) {
+        StringBuilder sb = new StringBuilder(vector.length * 12).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Decodes the output of vector_send(embedding) (read as bytea).
+     */
+    public static float[] decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int dimension = buffer.getShort() & 0xFFFF;
+        buffer.getShort(); // unused
+        if (bytes.length != encodedSize(dimension)) {
+            throw new IllegalArgumentException("Malformed vector: " + bytes.length + " bytes for dimension " + dimension);
+        }
+        float[] vector = new float[dimension];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+}
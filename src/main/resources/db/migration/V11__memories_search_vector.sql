@@ -0,0 +1,18 @@
+-- Weighted full-text vector (title 'A', content 'B'), computed by Postgres on
+-- write so ranking no longer re-parses title and content on every query
+ALTER TABLE memories
+ADD COLUMN IF NOT EXISTS search_vector tsvector
+GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+    setweight(to_tsvector('english', COALESCE(content, '')), 'B')
+) STORED;
+
+-- Replace the V7 expression index with one on the stored column, used by both
+-- the @@ match and ts_rank
+DROP INDEX IF EXISTS idx_memories_search_vector;
+
+CREATE INDEX IF NOT EXISTS idx_memories_search_vector
+ON memories
+USING GIN (search_vector);
+
+COMMENT ON COLUMN memories.search_vector IS 'Generated weighted tsvector for full-text search (title A, content B)';
@@ -0,0 +1,6 @@
+-- Partial index matching the keyset listing of active memories:
+-- WHERE user_id = ? AND archived = false ORDER BY created_at DESC, id DESC
+-- Every slice is an index range scan of slice size + 1 rows, however deep
+CREATE INDEX IF NOT EXISTS idx_memories_user_active_created
+ON memories (user_id, created_at DESC, id DESC)
+WHERE archived = false;
@@ -0,0 +1,6 @@
+-- Serves the chunked account deletion, which locks each chunk with
+-- SELECT id FROM memories WHERE user_id = ? ORDER BY id LIMIT ? FOR UPDATE
+-- Each chunk is an index range scan instead of a sort of all the user's rows;
+-- the deletes themselves then go by primary key (id = ANY(?))
+CREATE INDEX IF NOT EXISTS idx_memories_user_id_id
+ON memories (user_id, id);
@@ -0,0 +1,10 @@
+-- One row per embedding vector space that stored memories were (re-)embedded
+-- into. At startup EmbeddingService re-embeds all active memories once when
+-- the configured provider's space has no completed row, so stored vectors
+-- and query vectors always come from the same model/kernel.
+-- Empty on creation: the first startup after this migration backfills.
+CREATE TABLE IF NOT EXISTS embedding_spaces (
+    space VARCHAR(255) PRIMARY KEY,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP WITH TIME ZONE
+);
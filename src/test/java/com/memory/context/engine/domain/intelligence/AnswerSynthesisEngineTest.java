@@ -0,0 +1,99 @@
+package com.memory.context.engine.domain.intelligence;
+
+import com.memory.context.engine.domain.intelligence.AnswerSynthesisEngine.ScoredMemory;
+import com.memory.context.engine.domain.memory.entity.Memory;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+class AnswerSynthesisEngineTest {
+
+    @Test
+    void testMergeByMemoryKeepsBestScoreAndLimit() {
+        List<ScoredMemory> speculative = List.of(scored(1L, 0.4), scored(2L, 0.3));
+        List<ScoredMemory> termed = List.of(scored(2L, 0.9), scored(3L, 0.2));
+
+        List<ScoredMemory> merged = AnswerSynthesisEngine.mergeByMemory(speculative, termed, 2);
+
+        assertEquals(2, merged.size());
+        assertEquals(2L, merged.get(0).memory().getId());
+        assertEquals(0.9, merged.get(0).score());
+        assertEquals(1L, merged.get(1).memory().getId());
+    }
+
+    @Test
+    void testSourceVersionsKeyTheCacheByIdsOnly() {
+        ScoredMemory edited = scored(2L, 0.5);
+        edited.memory().setVersion(3L);
+
+        Map<Long, Long> versions = AnswerSynthesisEngine.sourceVersions(List.of(edited), List.of(scored(1L, 0.9)));
+
+        assertEquals(Map.of(1L, 0L, 2L, 3L), versions);
+        // Same memories in any order and version share a partition
+        assertEquals(GeminiService.contextFingerprint(versions.keySet()),
+                GeminiService.contextFingerprint(List.of(2L, 1L)));
+        assertNotEquals(GeminiService.contextFingerprint(versions.keySet()),
+                GeminiService.contextFingerprint(List.of(1L)));
+    }
+
+    @Test
+    void testSearchRowsCarryTheMemoryVersion() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ResultSet row = searchRow(7L, 4L);
+        when(jdbcTemplate.query(contains("ts_rank"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(inv -> List.of(inv.getArgument(1, RowMapper.class).mapRow(row, 0)));
+
+        List<ScoredMemory> found = engine(jdbcTemplate).findRelevantMemories("java gc", List.of("java"), "u1", 10);
+
+        assertEquals(4L, found.get(0).memory().getVersion());
+        assertEquals(Map.of(7L, 4L), AnswerSynthesisEngine.sourceVersions(found, List.of()));
+    }
+
+    @Test
+    void testFallbackSearchRowsCarryTheMemoryVersion() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ResultSet row = searchRow(7L, 4L);
+        when(jdbcTemplate.query(contains("ts_rank"), any(RowMapper.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("syntax error in tsquery"));
+        when(jdbcTemplate.query(contains("ORDER BY importance_score"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(inv -> List.of(inv.getArgument(1, RowMapper.class).mapRow(row, 0)));
+
+        List<ScoredMemory> found = engine(jdbcTemplate).findRelevantMemories("java gc", List.of("java"), "u1", 10);
+
+        assertEquals(Map.of(7L, 4L), AnswerSynthesisEngine.sourceVersions(found, List.of()));
+    }
+
+    private static AnswerSynthesisEngine engine(JdbcTemplate jdbcTemplate) {
+        TextSimilarityService similarityService = mock(TextSimilarityService.class);
+        when(similarityService.cosineSimilarity(anyString(), anyString())).thenReturn(0.5);
+        return new AnswerSynthesisEngine(null, null, similarityService, null, jdbcTemplate, null, null);
+    }
+
+    private static ResultSet searchRow(long id, long version) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("title")).thenReturn("JVM");
+        when(rs.getString("content")).thenReturn("Garbage collection notes");
+        when(rs.getInt("importance_score")).thenReturn(5);
+        when(rs.getLong("version")).thenReturn(version);
+        when(rs.getDouble("rank")).thenReturn(0.3);
+        return rs;
+    }
+
+    private static ScoredMemory scored(long id, double score) {
+        Memory memory = new Memory();
+        memory.setId(id);
+        return new ScoredMemory(memory, score);
+    }
+}
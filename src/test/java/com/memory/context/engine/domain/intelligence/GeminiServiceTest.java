@@ -0,0 +1,163 @@
+package com.memory.context.engine.domain.intelligence;
+
+import com.memory.context.engine.domain.intelligence.cache.SemanticCacheResult;
+import com.memory.context.engine.domain.intelligence.cache.SemanticCacheService;
+import com.memory.context.engine.domain.memory.entity.Memory;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the non-blocking Gemini client against a local stub server.
+ */
+class GeminiServiceTest {
+
+    private static final String YES_RESPONSE = """
+            {"candidates": [{"content": {"parts": [{"text": "YES"}]}}]}
+            """;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private HttpServer server;
+    private SemanticCacheService semanticCacheService;
+    private GeminiService geminiService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            // First call is rate limited, the retry succeeds
+            boolean limited = requestCount.incrementAndGet() == 1;
+            byte[] body = (limited ? "{}" : YES_RESPONSE).getBytes(StandardCharsets.UTF_8);
+            if (limited) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+            }
+            exchange.sendResponseHeaders(limited ? 429 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/stream", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            // Length 0 = chunked transfer, each event is flushed separately
+            exchange.sendResponseHeaders(200, 0);
+            for (String chunk : List.of("Hello", " from", " memories")) {
+                String event = "data: {\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"" + chunk
+                        + "\"}]}}]}\r\n\r\n";
+                exchange.getResponseBody().write(event.getBytes(StandardCharsets.UTF_8));
+                exchange.getResponseBody().flush();
+            }
+            exchange.close();
+        });
+        server.createContext("/stream-broken", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            String event = "data: {\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"Hello\"}]}}]}\r\n\r\n";
+            exchange.getResponseBody().write(event.getBytes(StandardCharsets.UTF_8));
+            exchange.getResponseBody().flush();
+            // Dropping the connection mid-body leaves the chunked response unterminated
+            throw new IOException("connection lost");
+        });
+        server.start();
+
+        semanticCacheService = mock(SemanticCacheService.class);
+        when(semanticCacheService.lookup(anyString(), anyString(), anyString())).thenReturn(SemanticCacheResult.miss());
+        geminiService = new GeminiService(semanticCacheService, 2000, 5000);
+        ReflectionTestUtils.setField(geminiService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(geminiService, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/generate");
+        ReflectionTestUtils.setField(geminiService, "streamUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/stream");
+        ReflectionTestUtils.setField(geminiService, "maxRetries", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testRateLimitedCallIsRetried() throws Exception {
+        Memory m1 = new Memory();
+        m1.setTitle("JVM");
+        Memory m2 = new Memory();
+        m2.setTitle("Garbage Collection");
+
+        assertTrue(geminiService.shouldLinkAsync(m1, m2).get(5, TimeUnit.SECONDS));
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    void testStreamedChunksAreForwardedAndCached() throws Exception {
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        String answer = geminiService.streamAnswerAsync("What did I write?", List.of("Title: a"), Map.of(1L, 0L),
+                chunks::add)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Hello", " from", " memories"), chunks);
+        assertEquals("Hello from memories", answer);
+        verify(semanticCacheService).storeAsync(eq("gemini-answers"), anyString(), eq("What did I write?"),
+                eq("Hello from memories"), eq(1.0), eq(Map.of(1L, 0L)));
+    }
+
+    @Test
+    void testFailureAfterChunksCompletesExceptionally() {
+        ReflectionTestUtils.setField(geminiService, "streamUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/stream-broken");
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> answer = geminiService.streamAnswerAsync("What did I write?", List.of("Title: a"),
+                Map.of(1L, 0L), chunks::add);
+
+        assertThrows(ExecutionException.class, () -> answer.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Hello"), chunks);
+        verify(semanticCacheService, never()).storeAsync(anyString(), anyString(), anyString(), anyString(),
+                anyDouble(), any());
+    }
+
+    @Test
+    void testStaleHitIsServedAndRegeneratedInBackground() throws Exception {
+        when(semanticCacheService.lookup(anyString(), anyString(), anyString())).thenReturn(
+                SemanticCacheResult.hit("Old answer", 0.9, "What did I write?", Map.of(1L, 0L)));
+        when(semanticCacheService.singleFlight(anyString(), anyString(), anyString(), any()))
+                .thenAnswer(inv -> inv.<Supplier<CompletableFuture<String>>>getArgument(3).get());
+
+        String answer = geminiService.generateAnswerAsync("What did I write?", List.of("Title: a"), Map.of(1L, 1L))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("Old answer", answer);
+        verify(semanticCacheService, timeout(5000)).storeAsync(eq("gemini-answers"), anyString(),
+                eq("What did I write?"), eq("YES"), eq(1.0), eq(Map.of(1L, 1L)));
+    }
+
+    @Test
+    void testMissingApiKeyCompletesImmediately() {
+        ReflectionTestUtils.setField(geminiService, "apiKey", "");
+
+        assertTrue(geminiService.extractSearchTermsAsync("anything").isDone());
+        assertEquals(0, requestCount.get());
+    }
+}
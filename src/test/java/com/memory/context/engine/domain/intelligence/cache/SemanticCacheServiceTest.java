@@ -1,17 +1,27 @@
 package com.memory.context.engine.domain.intelligence.cache;
 
 import com.memory.context.engine.domain.intelligence.KeywordExtractionService;
+import com.memory.context.engine.domain.search.embedding.HashingEmbeddingProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +39,10 @@ class SemanticCacheServiceTest {
     private ValueOperations<String, Object> valueOps;
     @Mock
     private SetOperations<String, Object> setOps;
+    @Mock
+    private ZSetOperations<String, Object> zSetOps;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
 
     private SemanticCacheService semanticCacheService;
 
@@ -36,7 +50,16 @@ class SemanticCacheServiceTest {
     void setUp() {
         lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
         lenient().when(redisTemplate.opsForSet()).thenReturn(setOps);
-        semanticCacheService = new SemanticCacheService(keywordExtractionService, redisTemplate);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        lenient().when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) RedisSerializer.json());
+        // Run pipelined callbacks directly against the mocked template
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(
+                inv -> {
+                    inv.getArgument(0, SessionCallback.class).execute(redisTemplate);
+                    return List.of();
+                });
+        semanticCacheService = new SemanticCacheService(keywordExtractionService, redisTemplate, listenerContainer,
+                new HashingEmbeddingProvider(64));
 
         // Use reflection or constructor injection for properties if needed
         // But here we rely on default values or would need to set them via reflection
@@ -60,6 +83,22 @@ class SemanticCacheServiceTest {
             l1MaxSizeField.setAccessible(true);
             l1MaxSizeField.set(semanticCacheService, 100);
 
+            var maxEntriesField = SemanticCacheService.class.getDeclaredField("maxEntries");
+            maxEntriesField.setAccessible(true);
+            maxEntriesField.set(semanticCacheService, 1000);
+
+            var maxEntriesByCacheField = SemanticCacheService.class.getDeclaredField("maxEntriesByCache");
+            maxEntriesByCacheField.setAccessible(true);
+            maxEntriesByCacheField.set(semanticCacheService, Map.of("small-cache", 2));
+
+            var lshBandsField = SemanticCacheService.class.getDeclaredField("lshBands");
+            lshBandsField.setAccessible(true);
+            lshBandsField.set(semanticCacheService, 16);
+
+            var lshRowsField = SemanticCacheService.class.getDeclaredField("lshRows");
+            lshRowsField.setAccessible(true);
+            lshRowsField.set(semanticCacheService, 4);
+
             semanticCacheService.init();
         } catch (Exception e) {
             fail("Failed to setup test instance fields: " + e.getMessage());
@@ -77,24 +116,28 @@ class SemanticCacheServiceTest {
     }
 
     @Test
-    void testStorePopulatesInvertedIndex() {
+    void testStorePopulatesLshBuckets() {
         String question = "apple pie";
         String value = "Apple pie is delicious.";
-        Set<String> keywords = Set.of("apple", "pie");
 
         semanticCacheService.store("test-cache", question, value, 1.0);
 
-        // Verify stored in value ops
-        verify(valueOps).set(contains("semantic:entry:test-cache:"), any(SemanticCacheEntry.class),
+        // Verify stored in value ops, with its signature
+        verify(valueOps).set(eq("semantic:entry:test-cache:apple_pie"),
+                argThat(entry -> ((SemanticCacheEntry) entry).getMinHashSignature().length == 64),
                 any(Duration.class));
 
-        // Verify inverted index updates
-        verify(setOps).add(eq("semantic:inverted:test-cache:apple"), contains("semantic:entry:test-cache:"));
-        verify(setOps).add(eq("semantic:inverted:test-cache:pie"), contains("semantic:entry:test-cache:"));
+        // One bucket per band
+        verify(setOps, times(16)).add(startsWith("semantic:lsh:test-cache:"), eq("semantic:entry:test-cache:apple_pie"));
+
+        // Everything in one pipelined MULTI/EXEC
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate).multi();
+        verify(redisTemplate).exec();
     }
 
     @Test
-    void testLookupUsingInvertedIndex() {
+    void testLookupUsingLshBuckets() {
         String question = "apple pie";
         String cacheName = "test-cache";
 
@@ -114,16 +157,161 @@ class SemanticCacheServiceTest {
         assertTrue(result.isHit());
         assertEquals("The Answer", result.getCachedValue());
 
-        // Verify we checked the inverted index
+        // Verify we read exactly one bucket per band, independent of keyword count
         verify(setOps).union(argThat(list -> {
             List<String> keys = (List<String>) list;
-            return keys.stream().anyMatch(k -> k.contains("apple")) &&
-                    keys.stream().anyMatch(k -> k.contains("pie"));
+            return keys.size() == 16 && keys.stream().allMatch(k -> k.startsWith("semantic:lsh:test-cache:"));
         }));
     }
 
     @Test
-    void testLookupMissWhenInvertedIndexEmpty() {
+    void testStoredEntryIsServedLocallyWithoutRedis() {
+        semanticCacheService.store("test-cache", "apple pie recipe", "Bake it.", 1.0);
+
+        SemanticCacheResult result = semanticCacheService.lookup("test-cache", "apple pie recipe?");
+
+        assertTrue(result.isHit());
+        assertEquals("Bake it.", result.getCachedValue());
+        verify(setOps, never()).union(anyList());
+        verify(valueOps, never()).multiGet(anyList());
+    }
+
+    @Test
+    void testEmbeddingModeServesLocallyWithPerCacheThreshold() throws Exception {
+        var modeField = SemanticCacheService.class.getDeclaredField("mode");
+        modeField.setAccessible(true);
+        modeField.set(semanticCacheService, "embedding");
+        var thresholdField = SemanticCacheService.class.getDeclaredField("embeddingThreshold");
+        thresholdField.setAccessible(true);
+        thresholdField.set(semanticCacheService, 0.9);
+        var thresholdsField = SemanticCacheService.class.getDeclaredField("embeddingThresholds");
+        thresholdsField.setAccessible(true);
+        thresholdsField.set(semanticCacheService, Map.of("strict-cache", 1.01));
+        semanticCacheService.init();
+        lenient().when(setOps.union(anyList())).thenReturn(Collections.emptySet());
+
+        semanticCacheService.store("test-cache", "apple pie recipe", "Bake it.", 1.0);
+        semanticCacheService.store("strict-cache", "apple pie recipe", "Bake it.", 1.0);
+
+        verify(valueOps).set(eq("semantic:entry:test-cache:apple_pie_recipe"),
+                argThat(entry -> ((SemanticCacheEntry) entry).getQuestionEmbedding().length == 64),
+                any(Duration.class));
+
+        SemanticCacheResult result = semanticCacheService.lookup("test-cache", "Recipe: apple pie?");
+        assertTrue(result.isHit());
+        assertEquals("Bake it.", result.getCachedValue());
+        verify(setOps, never()).union(anyList());
+
+        // Same question, but this cache's threshold cannot be reached
+        assertFalse(semanticCacheService.lookup("strict-cache", "apple pie recipe").isHit());
+    }
+
+    @Test
+    void testPartitionMustMatchExactly() {
+        semanticCacheService.store("test-cache", "ctx1", "apple pie recipe", "Bake it.", 1.0);
+        when(setOps.union(anyList())).thenReturn(Collections.emptySet());
+
+        verify(valueOps).set(eq("semantic:entry:test-cache:ctx1:apple_pie_recipe"), any(), any(Duration.class));
+        assertTrue(semanticCacheService.lookup("test-cache", "ctx1", "apple pie recipe?").isHit());
+        assertFalse(semanticCacheService.lookup("test-cache", "ctx2", "apple pie recipe?").isHit());
+        assertFalse(semanticCacheService.lookup("test-cache", "apple pie recipe?").isHit());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStoreFlushesTouchesAndTrimsInTheSameTransaction() {
+        semanticCacheService.store("small-cache", "apple pie recipe", "Bake it.", 1.0);
+        // Local hit, recorded as a pending touch
+        assertTrue(semanticCacheService.lookup("small-cache", "apple pie recipe?").isHit());
+
+        semanticCacheService.store("small-cache", "banana bread recipe", "Mash it.", 1.0);
+
+        verify(zSetOps).add(eq("semantic:lru:small-cache"), eq("semantic:entry:small-cache:banana_bread_recipe"),
+                anyDouble());
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), keys.capture(), any(Object[].class));
+        assertEquals(List.of("semantic:lru:small-cache", "semantic:index:small-cache",
+                "semantic:lru:small-cache", "semantic:entry:small-cache:apple_pie_recipe"), keys.getValue());
+        // No separate size check or trim round trip after the store
+        verify(zSetOps, never()).zCard(anyString());
+        verify(zSetOps, never()).range(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testRemoteInvalidationDropsLocalEntry() {
+        semanticCacheService.store("test-cache", "apple pie recipe", "Bake it.", 1.0);
+        when(setOps.union(anyList())).thenReturn(Collections.emptySet());
+
+        semanticCacheService.handleInvalidation("other-instance|entry|semantic:entry:test-cache:apple_pie_recipe");
+
+        assertFalse(semanticCacheService.lookup("test-cache", "apple pie recipe").isHit());
+        verify(setOps).union(anyList());
+    }
+
+    @Test
+    void testInternedJaccardMatchesSetJaccard() {
+        KeywordDictionary dictionary = new KeywordDictionary();
+        Set<String> entry = Set.of("java", "garbage", "collection", "tuning");
+        int[] entryIds = dictionary.intern(entry);
+
+        // "g1" was never interned, it only widens the union
+        Set<String> query = Set.of("java", "garbage", "collection", "g1");
+
+        assertEquals(semanticCacheService.calculateSimilarity(query, entry),
+                KeywordDictionary.jaccard(dictionary.lookup(query), entryIds), 1e-9);
+        assertEquals(0.6, KeywordDictionary.jaccard(dictionary.lookup(query), entryIds), 1e-9);
+        assertEquals(4, dictionary.size());
+    }
+
+    @Test
+    void testKeywordDictionaryIsRebuiltFromLiveEntries() throws Exception {
+        var l1MaxSizeByCacheField = SemanticCacheService.class.getDeclaredField("l1MaxSizeByCache");
+        l1MaxSizeByCacheField.setAccessible(true);
+        l1MaxSizeByCacheField.set(semanticCacheService, Map.of("tiny-cache", 5));
+        var dictionaryMinSizeField = SemanticCacheService.class.getDeclaredField("dictionaryMinSize");
+        dictionaryMinSizeField.setAccessible(true);
+        dictionaryMinSizeField.set(semanticCacheService, 50);
+
+        // 600 distinct keywords pass through an L1 that holds at most 5 entries
+        for (int i = 0; i < 200; i++) {
+            semanticCacheService.store("tiny-cache", "alpha" + i + " beta" + i + " gamma" + i, "value", 1.0);
+        }
+
+        int interned = (int) semanticCacheService.getStats("tiny-cache").get("internedKeywords");
+        assertTrue(interned <= 100, "dictionary kept " + interned + " keywords");
+    }
+
+    @Test
+    void testEmbeddingIndexDropsEmptyPartitionGraphs() {
+        EmbeddingCacheIndex index = new EmbeddingCacheIndex(4);
+        float[] vector = {1f, 0f, 0f, 0f};
+
+        index.add("gemini-answers:ctx1", "semantic:entry:gemini-answers:ctx1:java_gc", vector);
+        index.add("gemini-answers:ctx2", "semantic:entry:gemini-answers:ctx2:java_gc", vector);
+        assertEquals(2, index.graphCount());
+
+        index.remove("gemini-answers:ctx1", "semantic:entry:gemini-answers:ctx1:java_gc");
+
+        assertEquals(1, index.graphCount());
+        assertTrue(index.search("gemini-answers:ctx1", vector, 5).isEmpty());
+        assertEquals("semantic:entry:gemini-answers:ctx2:java_gc",
+                index.search("gemini-answers:ctx2", vector, 5).get(0).entryKey());
+    }
+
+    @Test
+    void testSimilarQuestionsShareBucket() {
+        MinHashLsh lsh = new MinHashLsh(16, 4);
+        List<String> a = lsh.bucketIds(lsh.signature(Set.of("java", "garbage", "collection", "tuning")));
+        List<String> b = lsh.bucketIds(lsh.signature(Set.of("java", "garbage", "collection", "tuning", "g1")));
+        List<String> c = lsh.bucketIds(lsh.signature(Set.of("sourdough", "bread", "recipe")));
+
+        assertTrue(a.stream().anyMatch(b::contains));
+        assertTrue(a.stream().noneMatch(c::contains));
+    }
+
+    @Test
+    void testLookupMissWhenNoBucketCandidates() {
         String question = "unknown topic";
         when(setOps.union(anyList())).thenReturn(Collections.emptySet());
 
@@ -131,4 +319,33 @@ class SemanticCacheServiceTest {
 
         assertFalse(result.isHit());
     }
+
+    @Test
+    void testSingleFlightSharesInFlightLoad() {
+        CompletableFuture<String> gemini = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<CompletableFuture<String>> loader = () -> {
+            loads.incrementAndGet();
+            return gemini;
+        };
+
+        CompletableFuture<String> first = semanticCacheService.singleFlight("test-cache",
+                "How does Java garbage collection work?", loader);
+        CompletableFuture<String> second = semanticCacheService.singleFlight("test-cache",
+                "java garbage collection work", loader);
+
+        assertEquals(1, loads.get());
+        gemini.complete("Generational");
+        assertEquals("Generational", first.join());
+        assertEquals("Generational", second.join());
+
+        // Slot is released once the load completes, so a new call runs its own loader
+        CompletableFuture<String> third = semanticCacheService.singleFlight("test-cache",
+                "java garbage collection work", () -> {
+                    loads.incrementAndGet();
+                    return CompletableFuture.completedFuture("again");
+                });
+        assertEquals("again", third.join());
+        assertEquals(2, loads.get());
+    }
 }
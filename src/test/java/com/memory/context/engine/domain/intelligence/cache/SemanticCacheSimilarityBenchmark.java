@@ -0,0 +1,86 @@
+package com.memory.context.engine.domain.intelligence.cache;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of scoring one lookup candidate: the previous copy-two-HashSets
+ * Jaccard versus merge-intersection over interned, sorted keyword IDs.
+ * Results are reported per candidate.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.memory.context.engine.domain.intelligence.cache.SemanticCacheSimilarityBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemanticCacheSimilarityBenchmark {
+
+    private static final int CANDIDATES = 500;
+    private static final int VOCABULARY = 2000;
+
+    private final KeywordDictionary dictionary = new KeywordDictionary();
+    private Set<String> query;
+    private KeywordDictionary.KeywordIds queryIds;
+    private Set<String>[] candidateKeywords;
+    private int[][] candidateIds;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(1);
+        candidateKeywords = new Set[CANDIDATES];
+        candidateIds = new int[CANDIDATES][];
+        for (int i = 0; i < CANDIDATES; i++) {
+            candidateKeywords[i] = randomKeywords(random, 3 + random.nextInt(6));
+            candidateIds[i] = dictionary.intern(candidateKeywords[i]);
+        }
+        query = randomKeywords(random, 5);
+        queryIds = dictionary.lookup(query);
+    }
+
+    private static Set<String> randomKeywords(Random random, int count) {
+        Set<String> keywords = new HashSet<>();
+        while (keywords.size() < count) {
+            keywords.add("kw" + random.nextInt(VOCABULARY));
+        }
+        return keywords;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES)
+    public void legacyHashSetCopies(Blackhole bh) {
+        for (Set<String> candidate : candidateKeywords) {
+            Set<String> intersection = new HashSet<>(query);
+            intersection.retainAll(candidate);
+            Set<String> union = new HashSet<>(query);
+            union.addAll(candidate);
+            bh.consume((double) intersection.size() / union.size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES)
+    public void internedMergeIntersection(Blackhole bh) {
+        for (int[] candidate : candidateIds) {
+            bh.consume(KeywordDictionary.jaccard(queryIds, candidate));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SemanticCacheSimilarityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,27 @@
+package com.memory.context.engine.domain.memory.service;
+
+import com.memory.context.engine.domain.common.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCursorTest {
+
+    @Test
+    void testRoundTripKeepsMicrosecondsAndId() {
+        MemoryCursor cursor = new MemoryCursor(Instant.parse("2026-03-01T10:15:30.123456Z"), 42L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("="));
+        assertEquals(cursor, MemoryCursor.decode(token));
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> MemoryCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> MemoryCursor.decode("MTox"));
+    }
+}
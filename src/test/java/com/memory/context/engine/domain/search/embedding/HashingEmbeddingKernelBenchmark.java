@@ -0,0 +1,92 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous Random-per-word embedding loop with
+ * HashingEmbeddingKernel. Throughput is reported per memory; divide by
+ * TOKENS for tokens/sec.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.memory.context.engine.domain.search.embedding.HashingEmbeddingKernelBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashingEmbeddingKernelBenchmark {
+
+    private static final int DIMENSION = 1536;
+    private static final int TOKENS = 120;
+
+    private final HashingEmbeddingKernel kernel = new HashingEmbeddingKernel(DIMENSION);
+    private final float[] buffer = new float[DIMENSION];
+    private String text;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < TOKENS; i++) {
+            int length = 3 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            sb.append(i % 10 == 9 ? ". " : " ");
+        }
+        text = sb.toString();
+    }
+
+    @Benchmark
+    public void legacyRandomPerWord(Blackhole bh) {
+        String[] words = text.toLowerCase()
+                .replaceAll("[^a-z0-9\\s]", "")
+                .split("\\s+");
+        float[] embedding = new float[DIMENSION];
+        for (String word : words) {
+            if (word.length() < 3)
+                continue;
+            Random random = new Random(word.hashCode());
+            for (int i = 0; i < DIMENSION; i++) {
+                embedding[i] += random.nextFloat() - 0.5f;
+            }
+        }
+        double norm = 0.0;
+        for (int i = 0; i < DIMENSION; i++) {
+            norm += embedding[i] * embedding[i];
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < DIMENSION; i++) {
+                embedding[i] /= (float) norm;
+            }
+        }
+        bh.consume(embedding);
+    }
+
+    @Benchmark
+    public void kernelEmbed(Blackhole bh) {
+        bh.consume(kernel.embed(text));
+    }
+
+    @Benchmark
+    public void kernelEmbedIntoReusedBuffer(Blackhole bh) {
+        kernel.embedInto(text, buffer);
+        bh.consume(buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HashingEmbeddingKernelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
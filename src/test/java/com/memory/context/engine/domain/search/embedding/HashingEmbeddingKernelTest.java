@@ -0,0 +1,59 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingEmbeddingKernelTest {
+
+    private final HashingEmbeddingKernel kernel = new HashingEmbeddingKernel(1536);
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Test
+    void testDeterministicAndNormalized() {
+        float[] a = kernel.embed("Garbage collection tuning in the JVM");
+        float[] b = kernel.embed("Garbage collection tuning in the JVM");
+
+        assertArrayEquals(a, b);
+        assertEquals(1.0, dot(a, a), 1e-4);
+    }
+
+    @Test
+    void testNormalizationMatchesRegexPipeline() {
+        // Case, punctuation and short words are ignored like the old regex path
+        assertArrayEquals(
+                kernel.embed("dont panic about jvm"),
+                kernel.embed("Don't PANIC, about... JVM!! a ab"));
+    }
+
+    @Test
+    void testSharedWordsAreCloser() {
+        float[] base = kernel.embed("java garbage collector settings");
+        float[] related = kernel.embed("tuning the java garbage collector");
+        float[] unrelated = kernel.embed("banana bread recipe with walnuts");
+
+        assertTrue(dot(base, related) > dot(base, unrelated) + 0.3);
+    }
+
+    @Test
+    void testEmptyTextGivesZeroVector() {
+        float[] v = kernel.embed("a an");
+
+        assertEquals(0.0, dot(v, v));
+    }
+
+    @Test
+    void testEmbedIntoOverwritesBuffer() {
+        float[] buffer = kernel.embed("first text here");
+        kernel.embedInto("second text here", buffer);
+
+        assertArrayEquals(kernel.embed("second text here"), buffer);
+    }
+}
@@ -0,0 +1,155 @@
+package com.memory.context.engine.domain.search.embedding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the remote provider and the coalescing decorator against a local
+ * stub embeddings server that answers with the hashing kernel.
+ */
+class RemoteEmbeddingProviderTest {
+
+    private static final int DIM = 8;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HashingEmbeddingKernel kernel = new HashingEmbeddingKernel(DIM);
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/embeddings", exchange -> {
+            requestCount.incrementAndGet();
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            List<Object> data = new ArrayList<>();
+            int index = 0;
+            for (JsonNode input : body.get("input")) {
+                data.add(java.util.Map.of("index", index++, "embedding", kernel.embed(input.asText())));
+            }
+            byte[] response = objectMapper.writeValueAsBytes(java.util.Map.of("data", data));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.createContext("/v1/shifted", exchange -> {
+            // Answers every input with index + 1, so the last index is out of range
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            List<Object> data = new ArrayList<>();
+            int index = 1;
+            for (JsonNode input : body.get("input")) {
+                data.add(java.util.Map.of("index", index++, "embedding", kernel.embed(input.asText())));
+            }
+            byte[] response = objectMapper.writeValueAsBytes(java.util.Map.of("data", data));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.createContext("/v1/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/v1/broken", exchange -> {
+            byte[] response = "overloaded".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(503, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private RemoteEmbeddingProvider remote(String path) {
+        return new RemoteEmbeddingProvider(url + path, "test-key", "stub", DIM, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testEmbedBatchPreservesOrder() {
+        List<float[]> vectors = remote("/v1/embeddings").embedBatch(List.of("alpha beta", "gamma delta"));
+
+        assertEquals(1, requestCount.get());
+        assertArrayEquals(kernel.embed("alpha beta"), vectors.get(0));
+        assertArrayEquals(kernel.embed("gamma delta"), vectors.get(1));
+    }
+
+    @Test
+    void testHttpErrorsSurfaceAsExceptions() {
+        assertThrows(IllegalStateException.class, () -> remote("/v1/broken").embed("alpha"));
+    }
+
+    @Test
+    void testOutOfRangeIndexIsRejected() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> remote("/v1/shifted").embedBatch(List.of("alpha", "beta")));
+        assertTrue(e.getMessage().contains("index 2"), e.getMessage());
+    }
+
+    @Test
+    void testCoalescedCallerGivesUpAfterWaitTimeout() {
+        try (CoalescingEmbeddingProvider provider = new CoalescingEmbeddingProvider(
+                remote("/v1/slow"), 5, 64, Executors.newSingleThreadExecutor(), Duration.ofMillis(100))) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> provider.embed("alpha"));
+            assertTrue(e.getMessage().contains("timed out"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testConcurrentSingleRequestsAreCoalesced() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (CoalescingEmbeddingProvider provider = new CoalescingEmbeddingProvider(
+                remote("/v1/embeddings"), 200, 64, Executors.newFixedThreadPool(2), Duration.ofSeconds(10))) {
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<float[]>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                String text = "memory number " + "abcdef".charAt(i) + "xyz";
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return provider.embed(text);
+                }, pool));
+            }
+            start.countDown();
+
+            for (int i = 0; i < 6; i++) {
+                assertArrayEquals(kernel.embed("memory number " + "abcdef".charAt(i) + "xyz"), results.get(i).get());
+            }
+            assertTrue(requestCount.get() < 6, "expected coalescing, got " + requestCount.get() + " requests");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.memory.context.engine.domain.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25IndexTest {
+
+    @Test
+    void testRareTermsAndTitlesRankFirst() {
+        Bm25Index index = new Bm25Index();
+        index.upsert(1L, "Kafka consumer groups", "Rebalancing notes for the consumer");
+        index.upsert(2L, "Weekly notes", "Kafka came up briefly in standup");
+        index.upsert(3L, "Weekly notes", "Groceries and errands");
+
+        List<Bm25Index.Match> matches = index.search("kafka rebalancing", 10);
+
+        assertEquals(2, matches.size());
+        assertEquals(1L, matches.get(0).memoryId());
+        assertEquals(2L, matches.get(1).memoryId());
+        assertTrue(matches.get(0).score() > matches.get(1).score());
+        assertTrue(index.search("the and of", 10).isEmpty());
+    }
+
+    @Test
+    void testUpsertReplacesPreviousTerms() {
+        Bm25Index index = new Bm25Index();
+        index.upsert(1L, "Postgres tuning", "work_mem and shared_buffers");
+        index.upsert(1L, "Redis tuning", "maxmemory policies");
+
+        assertTrue(index.search("postgres", 5).isEmpty());
+        assertEquals(1L, index.search("redis", 5).get(0).memoryId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testSearchStaysCorrectAcrossCompaction() {
+        Bm25Index index = new Bm25Index();
+        for (long id = 1; id <= 100; id++) {
+            index.upsert(id, "note " + id, id % 2 == 0 ? "even topic" : "odd topic");
+        }
+        // Removing 60 forces tombstones to outnumber live documents
+        for (long id = 1; id <= 60; id++) {
+            assertTrue(index.remove(id));
+        }
+
+        List<Bm25Index.Match> matches = index.search("even", 100);
+
+        assertEquals(40, index.size());
+        assertEquals(20, matches.size());
+        assertTrue(matches.stream().allMatch(m -> m.memoryId() > 60 && m.memoryId() % 2 == 0));
+        assertFalse(index.remove(1L));
+    }
+}
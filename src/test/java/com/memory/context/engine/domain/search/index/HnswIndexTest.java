@@ -0,0 +1,99 @@
+package com.memory.context.engine.domain.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIM = 32;
+
+    private static float[] randomVector(Random random) {
+        float[] v = new float[DIM];
+        for (int i = 0; i < DIM; i++) {
+            v[i] = random.nextFloat() - 0.5f;
+        }
+        return v;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, na = 0, nb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        return dot / (Math.sqrt(na) * Math.sqrt(nb));
+    }
+
+    @Test
+    void testFindsExactVectorFirst() {
+        HnswIndex index = new HnswIndex(DIM, 8, 64, 32);
+        Random random = new Random(1);
+        Map<Long, float[]> vectors = new HashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            float[] v = randomVector(random);
+            vectors.put(id, v);
+            index.upsert(id, v);
+        }
+
+        List<HnswIndex.Match> matches = index.search(vectors.get(42L), 5);
+
+        assertEquals(5, matches.size());
+        assertEquals(42L, matches.get(0).memoryId());
+        assertEquals(1.0f, matches.get(0).similarity(), 1e-4);
+    }
+
+    @Test
+    void testRecallAgainstBruteForce() {
+        HnswIndex index = new HnswIndex(DIM, 16, 200, 100);
+        Random random = new Random(7);
+        Map<Long, float[]> vectors = new HashMap<>();
+        for (long id = 1; id <= 1000; id++) {
+            float[] v = randomVector(random);
+            vectors.put(id, v);
+            index.upsert(id, v);
+        }
+
+        int k = 10;
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> exact = new HashSet<>();
+            vectors.entrySet().stream()
+                    .sorted((a, b) -> Double.compare(cosine(query, b.getValue()), cosine(query, a.getValue())))
+                    .limit(k)
+                    .forEach(e -> exact.add(e.getKey()));
+
+            for (HnswIndex.Match match : index.search(query, k)) {
+                if (exact.contains(match.memoryId())) {
+                    hits++;
+                }
+            }
+        }
+
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.9, "recall was " + recall);
+    }
+
+    @Test
+    void testRemoveAndUpsertReplaceEntries() {
+        HnswIndex index = new HnswIndex(DIM, 8, 64, 32);
+        Random random = new Random(3);
+        for (long id = 1; id <= 50; id++) {
+            index.upsert(id, randomVector(random));
+        }
+
+        float[] replacement = randomVector(random);
+        index.upsert(10L, replacement);
+        assertTrue(index.remove(20L));
+        assertFalse(index.remove(20L));
+
+        assertEquals(49, index.size());
+        assertEquals(10L, index.search(replacement, 1).get(0).memoryId());
+        assertTrue(index.search(replacement, 50).stream().noneMatch(m -> m.memoryId() == 20L));
+    }
+}
@@ -0,0 +1,73 @@
+package com.memory.context.engine.domain.search.strategy;
+
+import com.memory.context.engine.domain.search.api.dto.SearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridSearchStrategyTest {
+
+    @Test
+    void testHitsFoundByBothRetrieversRankFirst() {
+        List<SearchResult> text = List.of(hit(1L, "text"), hit(2L, "text"), hit(3L, "text"));
+        List<SearchResult> vector = List.of(hit(4L, "vector"), hit(2L, "vector"), hit(5L, "vector"));
+
+        List<SearchResult> fused = HybridSearchStrategy.fuse(text, vector, 10);
+
+        assertEquals(2L, fused.get(0).getId());
+        // Rank 1 in one list beats rank 3 in one list
+        assertTrue(indexOf(fused, 1L) < indexOf(fused, 3L));
+        assertTrue(indexOf(fused, 4L) < indexOf(fused, 5L));
+        for (int i = 1; i < fused.size(); i++) {
+            assertTrue(fused.get(i - 1).getSimilarityScore() >= fused.get(i).getSimilarityScore());
+        }
+    }
+
+    @Test
+    void testDuplicatesAreMergedOnce() {
+        List<SearchResult> text = List.of(hit(1L, "from text"), hit(2L, "from text"));
+        List<SearchResult> vector = List.of(hit(2L, "from vector"), hit(1L, "from vector"));
+
+        List<SearchResult> fused = HybridSearchStrategy.fuse(text, vector, 10);
+
+        assertEquals(2, fused.size());
+        assertEquals(2, fused.stream().map(SearchResult::getId).distinct().count());
+        assertEquals("from text", fused.get(0).getTitle());
+    }
+
+    @Test
+    void testScoresAreNormalizedAndLimited() {
+        List<SearchResult> text = List.of(hit(1L, "a"), hit(2L, "b"), hit(3L, "c"));
+        List<SearchResult> vector = List.of(hit(1L, "a"));
+
+        List<SearchResult> fused = HybridSearchStrategy.fuse(text, vector, 2);
+
+        assertEquals(2, fused.size());
+        assertEquals(1L, fused.get(0).getId());
+        assertEquals(1.0, fused.get(0).getSimilarityScore(), 1e-9);
+        assertTrue(fused.get(1).getSimilarityScore() < 1.0);
+    }
+
+    @Test
+    void testEmptyLegIsTolerated() {
+        List<SearchResult> fused = HybridSearchStrategy.fuse(List.of(hit(7L, "only")), List.of(), 5);
+
+        assertEquals(1, fused.size());
+        assertEquals(7L, fused.get(0).getId());
+    }
+
+    private static SearchResult hit(Long id, String title) {
+        return SearchResult.builder().id(id).title(title).content("").similarityScore(0.0).build();
+    }
+
+    private static int indexOf(List<SearchResult> results, Long id) {
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
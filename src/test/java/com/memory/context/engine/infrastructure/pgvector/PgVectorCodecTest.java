@@ -0,0 +1,39 @@
+package com.memory.context.engine.infrastructure.pgvector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgVectorCodecTest {
+
+    @Test
+    void testBinaryRoundTrip() {
+        float[] vector = new float[1536];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = i * 0.001f - 0.5f;
+        }
+
+        byte[] encoded = PgVectorCodec.encode(vector);
+
+        assertEquals(4 + 1536 * 4, encoded.length);
+        // int16 dimension (big-endian), int16 unused
+        assertEquals(0x06, encoded[0]);
+        assertEquals(0x00, encoded[1]);
+        assertEquals(0, encoded[2]);
+        assertEquals(0, encoded[3]);
+        assertArrayEquals(vector, PgVectorCodec.decode(encoded));
+    }
+
+    @Test
+    void testDecodeRejectsTruncatedInput() {
+        byte[] encoded = PgVectorCodec.encode(new float[] { 1f, 2f, 3f });
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> PgVectorCodec.decode(truncated));
+    }
+
+    @Test
+    void testTextLiteral() {
+        assertEquals("[0.5,-1.0,2.25]", PgVectorCodec.toText(new float[] { 0.5f, -1f, 2.25f }));
+    }
+}